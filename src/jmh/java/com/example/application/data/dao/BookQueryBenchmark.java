@@ -0,0 +1,79 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.example.application.data.model.BookCursor;
+import com.example.application.data.model.BookPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BookDao} list queries the views run, on the seeded database, per sort order.
+ * <ul>
+ * <li><b>firstPage</b> and <b>middlePage</b>: a category page of {@value #PAGE_SIZE} books as {@code CategoryView}
+ * loads it, at the start and half way through the category, which keyset paging should make cost the same</li>
+ * <li><b>allBooks</b>: the first page of {@value #PAGE_SIZE} over all categories</li>
+ * <li><b>unpagedCategory</b>: {@link BookDao#getBooksByCategory(String, String)}, a whole category at once</li>
+ * </ul>
+ * <p>
+ * The home page shelves do not depend on the sort order and are measured by {@link HomeShelvesBenchmark}. Every call
+ * borrows a pooled connection and is recorded by the DAO metrics, as in the application.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookQueryBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    @Param({ "popular", "rating", "newest", "oldest", "alphabetical" })
+    public String sort;
+
+    private BookDao bookDao;
+    private BookSort bookSort;
+    private BookCursor middle;
+
+    @Setup(Level.Trial)
+    public void prepare(SeededDatabase database) {
+        bookDao = database.bookDao;
+        bookSort = BookSort.fromKey(sort);
+        // The seed puts a tenth of the books in each category
+        middle = bookDao.getBooksPage(1, bookSort, null, database.books / 20).next();
+    }
+
+    @Benchmark
+    public BookPage firstPage() {
+        return bookDao.getBooksPage(1, bookSort, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookPage middlePage() {
+        return bookDao.getBooksPage(1, bookSort, middle, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookPage allBooks() {
+        return bookDao.getBooksPage(null, bookSort, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> unpagedCategory() {
+        return bookDao.getBooksByCategory("Kategori 1", sort);
+    }
+}
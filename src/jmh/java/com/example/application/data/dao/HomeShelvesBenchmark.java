@@ -0,0 +1,115 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.HomeShelves;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ways of loading the home page shelves, on the seeded database with its large history table.
+ * <ul>
+ * <li><b>legacyGroupBy</b>: the four {@code GROUP BY b.id} aggregates over {@code book_history} that MainView used to
+ * run</li>
+ * <li><b>fourQueries</b>: the same four queries against {@code book_stats}</li>
+ * <li><b>singleStatement</b>: {@link BookDao#getHomeShelves(int)}</li>
+ * <li><b>windowFunctions</b>: one aggregation ranked three ways with {@code ROW_NUMBER()}, for reference</li>
+ * </ul>
+ * <p>
+ * Each returns the number of rows it read. H2 runs in-process, so the times contain no network round trips; against a
+ * MySQL server the legacy and four query variants pay three more than the others.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HomeShelvesBenchmark {
+
+    private static final int SHELF_SIZE = 5;
+
+    private static final String LEGACY_SELECT = "SELECT b.*, c.name as category_name, COUNT(bh.id) as view_count, "
+            + "AVG(bh.rating) as avg_rating FROM books b JOIN categories c ON b.category_id = c.id "
+            + "LEFT JOIN book_history bh ON b.id = bh.book_id GROUP BY b.id ";
+
+    private static final String WINDOW_QUERY = "SELECT * FROM ("
+            + "SELECT b.*, c.name as category_name, COALESCE(s.view_count, 0) as view_count, "
+            + "COALESCE(s.avg_rating, 0) as avg_rating, "
+            + "ROW_NUMBER() OVER (ORDER BY b.publish_date DESC, b.id DESC) as newest_rank, "
+            + "ROW_NUMBER() OVER (ORDER BY s.avg_rating DESC, b.id DESC) as rating_rank, "
+            + "ROW_NUMBER() OVER (ORDER BY s.view_count DESC, b.id DESC) as views_rank FROM books b "
+            + "JOIN categories c ON b.category_id = c.id LEFT JOIN book_stats s ON s.book_id = b.id"
+            + ") ranked WHERE newest_rank <= ? OR rating_rank <= ? OR views_rank <= ?";
+
+    private HikariDataSource dataSource;
+    private BookDao bookDao;
+
+    @Setup(Level.Trial)
+    public void prepare(SeededDatabase database) {
+        dataSource = database.dataSource;
+        bookDao = database.bookDao;
+    }
+
+    @Benchmark
+    public int legacyGroupBy() throws SQLException {
+        int rows = legacy("ORDER BY b.publish_date DESC LIMIT ?", SHELF_SIZE);
+        rows += legacy("ORDER BY avg_rating DESC LIMIT ?", SHELF_SIZE);
+        rows += legacy("ORDER BY view_count DESC LIMIT ?", SHELF_SIZE);
+        return rows + legacy("ORDER BY avg_rating DESC LIMIT ?", 1);
+    }
+
+    @Benchmark
+    public int fourQueries() {
+        return bookDao.getNewestBooks(SHELF_SIZE).size() + bookDao.getTopRatedBooks(SHELF_SIZE).size()
+                + bookDao.getMostViewedBooks(SHELF_SIZE).size() + bookDao.getTopRatedBooks(1).size();
+    }
+
+    @Benchmark
+    public HomeShelves singleStatement() {
+        return bookDao.getHomeShelves(SHELF_SIZE);
+    }
+
+    @Benchmark
+    public int windowFunctions() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(WINDOW_QUERY)) {
+            ps.setInt(1, SHELF_SIZE);
+            ps.setInt(2, SHELF_SIZE);
+            ps.setInt(3, SHELF_SIZE);
+            return count(ps);
+        }
+    }
+
+    private int legacy(String orderBy, int limit) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(LEGACY_SELECT + orderBy)) {
+            ps.setInt(1, limit);
+            return count(ps);
+        }
+    }
+
+    private static int count(PreparedStatement ps) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.example.application.data.model.RatingHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per row of mapping the book list query, {@link BookDao#SELECT_BOOKS}, onto {@link Book}s.
+ * <ul>
+ * <li><b>rowsOnly</b>: runs the query and steps through the rows, the baseline the others add to</li>
+ * <li><b>columnsByLabel</b> and <b>columnsByIndex</b>: read every column with the typed getters, by label as the DAO
+ * used to and by the positions {@link BookRowMapper} resolves once per result set, without creating a book</li>
+ * <li><b>booksByLabel</b> and <b>booksByIndex</b>: the same with a {@link Book} and its {@link RatingHistogram} per
+ * row, the latter being {@link BookRowMapper} itself</li>
+ * </ul>
+ * <p>
+ * Times are per row. With the {@code gc} profiler the benchmark profile adds, {@code gc.alloc.rate.norm} is the bytes
+ * allocated per row, so the difference between the columns and books variants is what a book costs.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(RowMappingBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMappingBenchmark {
+
+    static final int ROWS = 100;
+
+    private static final String[] INT_COLUMNS = { "id", "category_id", "view_count", "rating_1", "rating_2", "rating_3",
+            "rating_4", "rating_5" };
+    private static final String[] STRING_COLUMNS = { "title", "author", "category_name", "publisher", "synopsis",
+            "image_cover" };
+
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void prepare(SeededDatabase database) throws SQLException {
+        connection = database.dataSource.getConnection();
+        statement = connection.prepareStatement(BookDao.SELECT_BOOKS + "ORDER BY b.id LIMIT " + ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public void rowsOnly(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs);
+            }
+        }
+    }
+
+    @Benchmark
+    public void columnsByLabel(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                for (String column : INT_COLUMNS) {
+                    blackhole.consume(rs.getInt(column));
+                }
+                for (String column : STRING_COLUMNS) {
+                    blackhole.consume(rs.getString(column));
+                }
+                blackhole.consume(rs.getDate("publish_date"));
+                blackhole.consume(rs.getDouble("avg_rating"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void columnsByIndex(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            int[] ints = positions(rs, INT_COLUMNS);
+            int[] strings = positions(rs, STRING_COLUMNS);
+            int publishDate = rs.findColumn("publish_date");
+            int averageRating = rs.findColumn("avg_rating");
+            while (rs.next()) {
+                for (int column : ints) {
+                    blackhole.consume(rs.getInt(column));
+                }
+                for (int column : strings) {
+                    blackhole.consume(rs.getString(column));
+                }
+                blackhole.consume(rs.getDate(publishDate));
+                blackhole.consume(rs.getDouble(averageRating));
+            }
+        }
+    }
+
+    @Benchmark
+    public void booksByLabel(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(mapByLabel(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void booksByIndex(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            BookRowMapper mapper = new BookRowMapper(rs);
+            while (rs.next()) {
+                blackhole.consume(mapper.map(rs));
+            }
+        }
+    }
+
+    private static int[] positions(ResultSet rs, String[] labels) throws SQLException {
+        int[] positions = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            positions[i] = rs.findColumn(labels[i]);
+        }
+        return positions;
+    }
+
+    // The mapping BookDao did before BookRowMapper: one label lookup per column per row
+    private static Book mapByLabel(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getInt("id"));
+        book.setTitle(rs.getString("title"));
+        book.setAuthor(rs.getString("author"));
+        book.setCategoryId(rs.getInt("category_id"));
+        book.setCategoryName(rs.getString("category_name"));
+        book.setPublishDate(rs.getDate("publish_date"));
+        book.setPublisher(rs.getString("publisher"));
+        book.setSynopsis(rs.getString("synopsis"));
+        book.setImageCover(rs.getString("image_cover"));
+        book.setViewCount(rs.getInt("view_count"));
+        book.setAverageRating(rs.getDouble("avg_rating"));
+        book.setRatingHistogram(new RatingHistogram(rs.getInt("rating_1"), rs.getInt("rating_2"), rs.getInt("rating_3"),
+                rs.getInt("rating_4"), rs.getInt("rating_5")));
+        return book;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.application.data.dao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An H2 (MySQL mode) database with the test schema, seeded once per trial: ten categories, {@code books} books and
+ * {@code history} views skewed towards the low book ids, with {@code book_stats} rebuilt from them. Override the
+ * volumes with {@code -p books=... -p history=...}.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param("10000")
+    public int books;
+
+    @Param("1000000")
+    public int history;
+
+    HikariDataSource dataSource;
+    BookDao bookDao;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        // Unique per trial, since with -f 0 every trial runs in the same JVM
+        dataSource = TestDatabase.create("jmh-" + System.nanoTime(), 4);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) SELECT 'Kategori ' || r.\"X\" FROM SYSTEM_RANGE(1, 10) r");
+            st.executeUpdate("INSERT INTO books (category_id, title, author, publisher, synopsis, image_cover, "
+                    + "publish_date) SELECT MOD(r.\"X\", 10) + 1, 'Buku ' || r.\"X\", 'Penulis', 'Penerbit', "
+                    + "'Sinopsis', 'cover.jpeg', DATE '2000-01-01' + MOD(r.\"X\", 9000) FROM SYSTEM_RANGE(1, " + books
+                    + ") r");
+            // Skewed popularity: low ids are read far more often than high ids
+            st.executeUpdate("INSERT INTO book_history (book_id, member_id, rating) "
+                    + "SELECT 1 + FLOOR(POWER(RAND(), 3) * " + books + "), MOD(r.\"X\", 1000) + 1, "
+                    + "CASE WHEN MOD(r.\"X\", 4) = 0 THEN 1 + MOD(r.\"X\", 5) END FROM SYSTEM_RANGE(1, " + history
+                    + ") r");
+            st.execute("CREATE INDEX idx_books_publish_date ON books (publish_date)");
+        }
+        bookDao = new BookDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+        bookDao.rebuildBookStats();
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        dataSource.close();
+    }
+}
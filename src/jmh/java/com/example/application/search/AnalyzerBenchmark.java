@@ -0,0 +1,133 @@
+package com.example.application.search;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link StandardAnalyzer} with the {@link IndonesianAnalyzer} on the chapter texts in
+ * {@code book_content}, one document per chapter.
+ * <ul>
+ * <li><b>build</b>: analyzing every chapter and indexing it</li>
+ * <li><b>search</b>: one query, analyzed and answered; the {@code postings} counter divided by the {@code queries}
+ * counter is the fan-out, the postings of all terms of a query together</li>
+ * </ul>
+ * <p>
+ * Queries are runs of two to four consecutive words from random chapters, stopwords and inflections included, the way
+ * people type them. The chapters are read from the database the application uses, configured through the same
+ * {@code ELIBRARY_DB_URL}, {@code ELIBRARY_DB_USER} and {@code ELIBRARY_DB_PASSWORD} environment variables, e.g. one
+ * filled by {@code --generate-dataset}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyzerBenchmark {
+
+    private static final int QUERIES = 5_000;
+
+    @Param({ "standard", "indonesian" })
+    public String analyzerName;
+
+    private Analyzer analyzer;
+    private Map<Integer, String> chapters;
+    private SearchIndex index;
+    private Map<String, Integer> documentFrequencies;
+    private List<String> workload;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare() throws SQLException {
+        analyzer = analyzerName.equals("standard") ? new StandardAnalyzer() : new IndonesianAnalyzer();
+        String url = System.getenv().getOrDefault("ELIBRARY_DB_URL", "jdbc:mysql://localhost:3306/elibrary");
+        String user = System.getenv().getOrDefault("ELIBRARY_DB_USER", "root");
+        String password = System.getenv().getOrDefault("ELIBRARY_DB_PASSWORD", "");
+        chapters = new HashMap<>();
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT id, content FROM book_content WHERE content IS NOT NULL")) {
+            while (rs.next()) {
+                chapters.put(rs.getInt("id"), rs.getString("content"));
+            }
+        }
+        if (chapters.isEmpty()) {
+            throw new IllegalStateException("No chapters in book_content at " + url);
+        }
+
+        documentFrequencies = new HashMap<>();
+        index = index(documentFrequencies);
+
+        Random random = new Random(7);
+        List<String> chapterTexts = new ArrayList<>(chapters.values());
+        workload = new ArrayList<>(QUERIES);
+        while (workload.size() < QUERIES) {
+            String[] words = chapterTexts.get(random.nextInt(chapterTexts.size())).split("\\s+");
+            int length = Math.min(words.length, 2 + random.nextInt(3));
+            int start = random.nextInt(words.length - length + 1);
+            workload.add(String.join(" ", Arrays.copyOfRange(words, start, start + length)));
+        }
+    }
+
+    @Benchmark
+    public SearchIndex build() {
+        return index(new HashMap<>());
+    }
+
+    @Benchmark
+    public List<SearchHit> search(Postings postings) {
+        List<String> query = analyzer.analyze(workload.get(next));
+        next = (next + 1) % QUERIES;
+        postings.queries++;
+        for (String term : query) {
+            postings.postings += documentFrequencies.getOrDefault(term, 0);
+        }
+        return index.search(query, 20);
+    }
+
+    // Analyzes every chapter into a document, counting the documents each term occurs in
+    private SearchIndex index(Map<String, Integer> frequenciesOfTerms) {
+        List<Document> documents = new ArrayList<>(chapters.size());
+        for (Map.Entry<Integer, String> chapter : chapters.entrySet()) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            List<String> terms = analyzer.analyze(chapter.getValue());
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            frequencies.keySet().forEach(term -> frequenciesOfTerms.merge(term, 1, Integer::sum));
+            documents.add(new Document(chapter.getKey(), frequencies, terms.size()));
+        }
+        return SearchIndex.of(documents);
+    }
+
+    // Totals per iteration, reported next to the time
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Postings {
+        public long queries;
+        public long postings;
+    }
+}
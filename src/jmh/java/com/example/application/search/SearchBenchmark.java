@@ -0,0 +1,116 @@
+package com.example.application.search;
+
+import com.example.application.data.model.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time and query latency of the catalog search index on a synthetic catalog of {@code books} books.
+ * <ul>
+ * <li><b>build</b>: {@link SearchIndex#of} over the analyzed books, as a full rebuild does after reading them</li>
+ * <li><b>search</b>: one query of two or three words, taking the top 20 hits</li>
+ * </ul>
+ * <p>
+ * Words are drawn from a Zipf-like distribution over a generated vocabulary, so a few terms are very common (long
+ * posting lists) and most are rare, as in real text. Queries are drawn the same way. With the {@code gc} profiler the
+ * benchmark profile adds, {@code gc.alloc.rate.norm} of build is roughly what an index costs the heap.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String[] SYLLABLES = { "ba", "ca", "da", "ga", "ha", "ja", "ka", "la", "ma", "na", "pa", "ra",
+            "sa", "ta", "wa", "ya", "ng", "ku", "mu", "ri", "si", "ti", "be", "me", "ne", "lo", "po", "an", "in" };
+    private static final int QUERIES = 20_000;
+
+    @Param("100000")
+    public int books;
+
+    private List<Document> documents;
+    private SearchIndex index;
+    private List<List<String>> workload;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        Random random = new Random(7);
+        String[] vocabulary = vocabulary(random, 50_000);
+
+        BookSearchService service = new BookSearchService(null, new SimpleMeterRegistry(), Duration.ofMinutes(1),
+                Duration.ofHours(1));
+        documents = new ArrayList<>(books);
+        for (int id = 1; id <= books; id++) {
+            Book book = new Book();
+            book.setId(id);
+            book.setTitle(text(random, vocabulary, 2 + random.nextInt(4)));
+            book.setAuthor(text(random, vocabulary, 2));
+            book.setPublisher(text(random, vocabulary, 1));
+            book.setCategoryName(text(random, vocabulary, 1));
+            book.setSynopsis(text(random, vocabulary, 40 + random.nextInt(80)));
+            documents.add(service.document(book));
+        }
+        index = SearchIndex.of(documents);
+
+        workload = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            workload.add(Arrays.asList(text(random, vocabulary, 2 + random.nextInt(2)).split(" ")));
+        }
+    }
+
+    @Benchmark
+    public SearchIndex build() {
+        return SearchIndex.of(documents);
+    }
+
+    @Benchmark
+    public List<SearchHit> search() {
+        List<String> query = workload.get(next);
+        next = (next + 1) % QUERIES;
+        return index.search(query, 20);
+    }
+
+    private static String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 0; s < 2 + random.nextInt(3); s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.append(i).toString();
+        }
+        return words;
+    }
+
+    // Zipf-like: word i is picked with probability roughly proportional to 1 / (i + 1)
+    private static String text(Random random, String[] vocabulary, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = (int) Math.pow(vocabulary.length, random.nextDouble()) - 1;
+            text.append(i == 0 ? "" : " ").append(vocabulary[rank]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.application.cover;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Serves cover images and their thumbnails under the content-hashed URLs made by {@link CoverStore}.
+ * <p>
+ * A hashed URL only ever returns the same bytes, so responses are {@code Cache-Control: immutable} for a year and a
+ * browser that has a cover never asks for it again. A request that does revalidate, for example on a forced reload, is
+ * answered with 304 through the strong ETag, which is the hash itself. A URL with an outdated hash redirects to the
+ * current one instead of pinning new bytes under an old name.
+ * </p>
+ * <p>
+ * On Tomcat the file body is handed to the connector's sendfile support, so it goes from the page cache to the socket
+ * without being copied through the JVM; elsewhere it is streamed from a {@link FileChannel}.
+ * </p>
+ */
+@RestController
+class CoverController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CoverStore coverStore;
+
+    CoverController(CoverStore coverStore) {
+        this.coverStore = coverStore;
+    }
+
+    @GetMapping(CoverStore.PATH + "{hash}/{fileName}")
+    void cover(@PathVariable String hash, @PathVariable String fileName, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CoverStore.Cover cover = coverStore.find(fileName);
+        if (cover == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!cover.hash().equals(hash)) {
+            redirect(response, coverStore.url(fileName));
+            return;
+        }
+        MediaType type = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        send(cover.path(), cover.size(), cover.hash(), type, request, response);
+    }
+
+    @GetMapping(CoverStore.PATH + "{hash}/{width:\\d+}/{fileName}")
+    void thumbnail(@PathVariable String hash, @PathVariable int width, @PathVariable String fileName,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CoverStore.Cover cover = coverStore.find(fileName);
+        if (cover == null || !CoverSize.isThumbnailWidth(width)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!cover.hash().equals(hash)) {
+            redirect(response, coverStore.url(cover, fileName, width));
+            return;
+        }
+        // Normally made already when the URL was handed out; if the thumbnail has since been lost, make it again
+        Path thumbnail = coverStore.thumbnail(cover, width);
+        if (thumbnail == null) {
+            redirect(response, coverStore.url(fileName));
+            return;
+        }
+        send(thumbnail, Files.size(thumbnail), cover.hash() + "-" + width, MediaType.IMAGE_JPEG, request, response);
+    }
+
+    // An outdated URL must not be cached, or the browser would keep going to the old one
+    private static void redirect(HttpServletResponse response, String url) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        response.sendRedirect(url);
+    }
+
+    private static void send(Path path, long size, String etag, MediaType type, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+        // Sets the ETag header and, when If-None-Match matches it, the 304 status
+        if (new ServletWebRequest(request, response).checkNotModified('"' + etag + '"')) {
+            return;
+        }
+
+        response.setContentType(type.toString());
+        response.setContentLengthLong(size);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            file.transferTo(0, size, Channels.newChannel(out));
+        }
+    }
+}
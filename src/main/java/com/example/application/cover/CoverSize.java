@@ -0,0 +1,45 @@
+package com.example.application.cover;
+
+import java.util.Arrays;
+
+/**
+ * The sizes covers are shown at, by their CSS width in pixels.
+ * <p>
+ * Each size is offered to the browser at 1x and 2x density, so the thumbnails made for a cover are these widths and
+ * their doubles. Sizes with the same width share their thumbnails.
+ * </p>
+ */
+public enum CoverSize {
+    // Book cards in the shelves, category, search and profile grids
+    CARD(240),
+    // The featured book on the home page
+    BANNER(250),
+    // The cover next to the book details
+    DETAIL(240);
+
+    // 1x and 2x
+    static final int[] DENSITIES = { 1, 2 };
+
+    private final int width;
+
+    CoverSize(int width) {
+        this.width = width;
+    }
+
+    int width() {
+        return width;
+    }
+
+    // Whether some size asks for a thumbnail this wide, so requests cannot make the server scale to arbitrary widths
+    static boolean isThumbnailWidth(int width) {
+        return Arrays.stream(values())
+                .anyMatch(size -> Arrays.stream(DENSITIES).anyMatch(density -> size.width * density == width));
+    }
+
+    // Every thumbnail width, ascending and without duplicates
+    static int[] thumbnailWidths() {
+        return Arrays.stream(values())
+                .flatMapToInt(size -> Arrays.stream(DENSITIES).map(density -> size.width * density)).sorted().distinct()
+                .toArray();
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.application.cover;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * The cover image files in {@code elibrary.covers.directory}, each with a hash of its content and thumbnails for the
+ * {@link CoverSize sizes} they are shown at. The directory must exist when the application starts.
+ * <p>
+ * A cover's URL contains that hash, so the URL changes whenever the file does and the browser may cache what it got
+ * forever. Hashes are computed on first use and kept until the file's size or modification time changes, so a cover
+ * replaced on disk gets a new URL without a restart.
+ * </p>
+ * <p>
+ * Thumbnails are made by {@code elibrary.covers.thumbnail-threads} workers, for every cover when the application starts
+ * and for a new one the first time it is shown, and kept in {@code elibrary.covers.cache-directory} under the hash of
+ * the cover. Until a thumbnail exists the full cover is offered in its place. Covers are never scaled up.
+ * </p>
+ */
+@Component
+public class CoverStore implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CoverStore.class);
+
+    static final String PATH = "/covers/";
+
+    // Shown when a book has no cover file
+    static final String PLACEHOLDER = "data:image/svg+xml,%3Csvg xmlns='http://www.w3.org/2000/svg' width='240' "
+            + "height='280' viewBox='0 0 240 280'%3E%3Crect width='240' height='280' fill='%23eee'/%3E"
+            + "%3Ctext x='50%' y='50%' font-family='Arial' font-size='16' fill='%23000' text-anchor='middle'%3E"
+            + "No Cover%3C/text%3E%3C/svg%3E";
+
+    // Plain file names only, so a request can never reach outside the directory
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final Path directory;
+    private final Path cacheDirectory;
+    private final int threads;
+    private final Timer thumbnails;
+    private final Map<String, Cover> covers = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService workers;
+    private volatile Thumbnailer thumbnailer;
+
+    CoverStore(@Value("${elibrary.covers.directory}") Path directory,
+            @Value("${elibrary.covers.cache-directory:cover-cache}") Path cacheDirectory,
+            @Value("${elibrary.covers.thumbnail-threads:0}") int threads, MeterRegistry meterRegistry) {
+        this.directory = directory.toAbsolutePath().normalize();
+        // A wrong directory would otherwise only show as every book having the placeholder cover
+        if (!Files.isDirectory(this.directory)) {
+            throw new IllegalStateException("Cover directory " + this.directory + " does not exist; set "
+                    + "elibrary.covers.directory, or ELIBRARY_COVERS_DIR, to the directory holding the cover files");
+        }
+        this.cacheDirectory = cacheDirectory.toAbsolutePath().normalize();
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        this.thumbnails = Timer.builder("elibrary.covers.thumbnail")
+                .description("Time spent scaling a cover to a thumbnail").register(meterRegistry);
+    }
+
+    /**
+     * Returns the content-hashed URL of the cover file, or a placeholder image if there is no such file.
+     */
+    public String url(String fileName) {
+        Cover cover = find(fileName);
+        return cover == null ? PLACEHOLDER : url(cover, fileName);
+    }
+
+    /**
+     * Returns the URL of the cover for the {@code src} of an image shown at the size: its 1x thumbnail when there is
+     * one, else the cover itself or the placeholder.
+     */
+    public String url(String fileName, CoverSize size) {
+        Cover cover = find(fileName);
+        return cover == null ? PLACEHOLDER : url(cover, fileName, size.width());
+    }
+
+    /**
+     * Returns the {@code srcset} of an image of the cover shown at the size, with a candidate for each density, or an
+     * empty string if there is no cover file.
+     */
+    public String srcset(String fileName, CoverSize size) {
+        Cover cover = find(fileName);
+        if (cover == null) {
+            return "";
+        }
+        // Two densities scaled past the cover's own width give the same URL; listing it once is enough
+        Set<String> urls = new LinkedHashSet<>();
+        StringBuilder srcset = new StringBuilder();
+        for (int density : CoverSize.DENSITIES) {
+            String url = url(cover, fileName, size.width() * density);
+            if (urls.add(url)) {
+                srcset.append(srcset.isEmpty() ? "" : ", ").append(url).append(' ').append(density).append('x');
+            }
+        }
+        return srcset.toString();
+    }
+
+    /**
+     * Returns the current version of the cover file, or {@code null} if there is none.
+     */
+    Cover find(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path path = directory.resolve(fileName);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            covers.remove(fileName);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+
+        Cover cached = covers.get(fileName);
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (cached != null && cached.size() == attributes.size() && cached.lastModified() == modified) {
+            return cached;
+        }
+        Cover cover = new Cover(path, hash(path), width(path), attributes.size(), modified);
+        covers.put(fileName, cover);
+        return cover;
+    }
+
+    /**
+     * Returns the thumbnail of the cover at the width, making it first if needed, or {@code null} if the cover is no
+     * wider than that or cannot be scaled.
+     */
+    Path thumbnail(Cover cover, int width) {
+        Thumbnailer current = thumbnailer;
+        if (current == null || width >= cover.width()) {
+            return null;
+        }
+        try {
+            return current.make(cover, width).get();
+        } catch (ExecutionException e) {
+            log.warn("Making the {} px thumbnail of {} failed", width, cover.path(), e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // The hashed URL of the cover itself
+    private static String url(Cover cover, String fileName) {
+        return PATH + cover.hash() + "/" + fileName;
+    }
+
+    // The URL of the thumbnail at the width if it has been made; otherwise it is queued and the cover itself is used
+    String url(Cover cover, String fileName, int width) {
+        Thumbnailer current = thumbnailer;
+        if (current == null || width >= cover.width()) {
+            return url(cover, fileName);
+        }
+        if (current.find(cover, width) == null) {
+            current.make(cover, width);
+            return url(cover, fileName);
+        }
+        return PATH + cover.hash() + "/" + width + "/" + fileName;
+    }
+
+    // Hashes every cover, makes the thumbnails that are missing and deletes those of covers that have changed
+    private void warm(Thumbnailer thumbnailer) {
+        long start = System.nanoTime();
+        Set<String> hashes = new HashSet<>();
+        int queued = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Cover cover = find(file.getFileName().toString());
+                if (cover == null) {
+                    continue;
+                }
+                hashes.add(cover.hash());
+                for (int width : CoverSize.thumbnailWidths()) {
+                    if (width < cover.width() && thumbnailer.find(cover, width) == null) {
+                        thumbnailer.make(cover, width);
+                        queued++;
+                    }
+                }
+            }
+            int pruned = thumbnailer.prune(hashes);
+            log.info("Checked {} covers in {} ms: {} thumbnails queued, {} outdated ones deleted", hashes.size(),
+                    (System.nanoTime() - start) / 1_000_000, queued, pruned);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not check the thumbnails of the covers in {}", directory, e);
+        }
+    }
+
+    // The first 64 bits of the SHA-256 of the file, in hex
+    private static String hash(Path path) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The width in pixels from the image header without decoding it, or 0 if it is not an image we can read
+    private static int width(Path path) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return 0;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void start() {
+        workers = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("cover-thumbnailer-", 0).daemon().factory());
+        try {
+            Thumbnailer started = new Thumbnailer(cacheDirectory, workers, thumbnails);
+            thumbnailer = started;
+            workers.execute(() -> warm(started));
+        } catch (IOException e) {
+            log.warn("Cannot use {} for cover thumbnails, showing full covers only", cacheDirectory, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        thumbnailer = null;
+        workers.shutdownNow();
+        workers = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workers != null;
+    }
+
+    record Cover(Path path, String hash, int width, long size, long lastModified) {
+    }
+}
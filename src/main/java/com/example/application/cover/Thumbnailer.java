@@ -0,0 +1,165 @@
+package com.example.application.cover;
+
+import io.micrometer.core.instrument.Timer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scales covers down to JPEG thumbnails on a pool of workers and keeps them in a directory.
+ * <p>
+ * A thumbnail file is named after the hash of the cover it was made from and its width, so it stays valid for as long
+ * as the cover does and is never made twice. Concurrent requests for a thumbnail that is being made share the same
+ * future.
+ * </p>
+ */
+final class Thumbnailer {
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final String SUFFIX = ".jpeg";
+
+    private final Path directory;
+    private final ExecutorService workers;
+    private final Timer timer;
+    private final Map<String, CompletableFuture<Path>> pending = new ConcurrentHashMap<>();
+
+    Thumbnailer(Path directory, ExecutorService workers, Timer timer) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.workers = workers;
+        this.timer = timer;
+    }
+
+    /**
+     * Returns the thumbnail of the cover at the width, or {@code null} if it has not been made yet.
+     */
+    Path find(CoverStore.Cover cover, int width) {
+        Path path = path(cover.hash(), width);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Makes the thumbnail of the cover at the width unless it exists already.
+     */
+    CompletableFuture<Path> make(CoverStore.Cover cover, int width) {
+        Path path = path(cover.hash(), width);
+        if (Files.isRegularFile(path)) {
+            return CompletableFuture.completedFuture(path);
+        }
+        String key = path.getFileName().toString();
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = pending.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    write(cover.path(), width, path);
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    pending.remove(key, created);
+                    created.complete(path);
+                } catch (IOException | RuntimeException e) {
+                    pending.remove(key, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Deletes the thumbnails of covers whose hash is not among the given ones and returns how many there were.
+     */
+    int prune(Set<String> hashes) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int dash = name.lastIndexOf('-');
+                if (dash > 0 && !hashes.contains(name.substring(0, dash)) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Path path(String hash, int width) {
+        return directory.resolve(hash + "-" + width + SUFFIX);
+    }
+
+    // Scales the source to the width and moves the result into place only once it is complete
+    private void write(Path source, int width, Path target) throws IOException {
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            throw new IOException("No image reader for " + source);
+        }
+        BufferedImage scaled = scale(image, width);
+
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(scaled, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Halves the image while it is more than twice too wide, then scales the rest of the way bicubically; a single
+    // large step would skip most source pixels and alias
+    static BufferedImage scale(BufferedImage image, int width) {
+        int height = Math.max(1, Math.round(image.getHeight() * (float) width / image.getWidth()));
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width) {
+            current = draw(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2),
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return draw(current, width, height, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    // JPEG has no alpha, so transparent pixels are laid on white
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
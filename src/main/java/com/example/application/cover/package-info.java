@@ -0,0 +1,10 @@
+/**
+ * Book cover images, served from {@code /covers} under content-hashed URLs.
+ * <p>
+ * Views ask {@link com.example.application.cover.CoverStore} for the URL of a cover instead of building a theme path,
+ * and {@link com.example.application.cover.CoverController} serves it so that a browser downloads each version of a
+ * cover exactly once. Views also set a {@code srcset} so that each cover is downloaded as a thumbnail at the
+ * {@link com.example.application.cover.CoverSize size} and screen density it is shown at.
+ * </p>
+ */
+package com.example.application.cover;
@@ -0,0 +1,67 @@
+package com.example.application.data;
+
+import com.example.application.data.dao.BookDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * One-shot backfill of the {@code book_stats} table.
+ * <p>
+ * Start the application with {@code --rebuild-book-stats} to create the tables if they do not exist yet, recompute
+ * every row from {@code book_history} and {@code book_review} and exit:
+ * </p>
+ * <!-- spotless:off -->
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.arguments=--rebuild-book-stats
+ * </pre>
+ * <!-- spotless:on -->
+ * <p>
+ * The rebuild runs in a single transaction. Views recorded by a running instance while it executes may be counted twice
+ * or not at all, so run it while the application is not serving traffic.
+ * </p>
+ */
+@Component
+class BookStatsRebuildCommand implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-book-stats";
+
+    private static final Logger log = LoggerFactory.getLogger(BookStatsRebuildCommand.class);
+
+    private final DataSource dataSource;
+    private final BookDao bookDao;
+    private final ApplicationContext context;
+
+    BookStatsRebuildCommand(DataSource dataSource, BookDao bookDao, ApplicationContext context) {
+        this.dataSource = dataSource;
+        this.bookDao = bookDao;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        new ResourceDatabasePopulator(new ClassPathResource("db/book_stats.sql"),
+                new ClassPathResource("db/book_review.sql")).execute(dataSource);
+
+        long start = System.nanoTime();
+        int rebuilt = bookDao.rebuildBookStats();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (rebuilt < 0) {
+            log.error("Rebuilding book_stats failed after {} ms", millis);
+        } else {
+            log.info("Rebuilt book_stats for {} books in {} ms", rebuilt, millis);
+        }
+        System.exit(SpringApplication.exit(context, () -> rebuilt < 0 ? 1 : 0));
+    }
+}
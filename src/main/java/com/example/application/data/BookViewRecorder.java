@@ -0,0 +1,212 @@
+package com.example.application.data;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.model.BookView;
+import com.example.application.jfr.BookViewEnqueueEvent;
+import com.example.application.jfr.BookViewFlushEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer for book views.
+ * <p>
+ * Views are put on a bounded in-memory queue and a single background thread writes them to {@code book_history} as JDBC
+ * batches, together with one {@code book_stats} update per distinct book. A batch is written as soon as
+ * {@code elibrary.book-views.batch-size} views are waiting, or {@code elibrary.book-views.flush-interval} after the
+ * oldest waiting view arrived, whichever comes first.
+ * </p>
+ * <p>
+ * When the queue is full, {@link #record(int, int)} waits up to {@code elibrary.book-views.offer-timeout} for room and
+ * then writes the view on the calling thread, so a slow database slows callers down instead of dropping views or
+ * growing the heap. On shutdown the queue is drained completely after the web server has stopped taking requests.
+ * </p>
+ * <p>
+ * Both sides are Java Flight Recorder events, {@link BookViewEnqueueEvent} and {@link BookViewFlushEvent}, so time
+ * callers spend waiting for room shows up next to the batches that were slow to write.
+ * </p>
+ */
+@Component
+public class BookViewRecorder implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BookViewRecorder.class);
+
+    private final BookDao bookDao;
+    private final BlockingQueue<BookView> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Duration shutdownTimeout;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    BookViewRecorder(BookDao bookDao, @Value("${elibrary.book-views.queue-capacity:10000}") int queueCapacity,
+            @Value("${elibrary.book-views.batch-size:500}") int batchSize,
+            @Value("${elibrary.book-views.flush-interval:1s}") Duration flushInterval,
+            @Value("${elibrary.book-views.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${elibrary.book-views.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.bookDao = bookDao;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Queues a view of the given book by the given member.
+     */
+    public void record(int bookId, int memberId) {
+        BookViewEnqueueEvent event = new BookViewEnqueueEvent();
+        event.begin();
+        boolean queued = enqueue(new BookView(bookId, memberId));
+        // Queue is full or the recorder is stopped: fall back to a synchronous write on the caller's thread
+        if (!queued && !bookDao.recordBookView(bookId, memberId)) {
+            log.warn("Could not record view of book {} by member {}", bookId, memberId);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bookId = bookId;
+            event.memberId = memberId;
+            event.queued = queued;
+            event.pending = queue.size();
+            event.commit();
+        }
+    }
+
+    private boolean enqueue(BookView view) {
+        if (!running) {
+            return false;
+        }
+        try {
+            return queue.offer(view, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of views waiting to be written.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    private void runFlusher() {
+        List<BookView> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                try {
+                    BookView first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + flushIntervalNanos;
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.nanoTime();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        BookView next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    write(batch);
+                } catch (RuntimeException e) {
+                    // Keeps the flusher alive; otherwise every later view would wait for room and be written inline
+                    log.error("Dropped {} book views after an unexpected error", batch.size(), e);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.drainTo(batch);
+        while (!batch.isEmpty()) {
+            List<BookView> views = batch.subList(0, Math.min(batchSize, batch.size()));
+            try {
+                write(views);
+            } catch (RuntimeException e) {
+                log.error("Dropped {} book views after an unexpected error", views.size(), e);
+                views.clear();
+            }
+        }
+    }
+
+    // Writes the views and removes them from the list. A failed batch is split in half and each half written again,
+    // so one bad view, such as one of a book that was deleted meanwhile, only costs itself and not the whole batch.
+    private void write(List<BookView> views) {
+        BookViewFlushEvent event = new BookViewFlushEvent();
+        event.begin();
+        boolean written = bookDao.recordBookViews(views);
+        event.end();
+        if (event.shouldCommit()) {
+            event.views = views.size();
+            event.failed = !written;
+            event.pending = queue.size();
+            event.commit();
+        }
+        if (!written && views.size() == 1) {
+            BookView view = views.getFirst();
+            log.error("Dropped view of book {} by member {} after a failed insert", view.bookId(), view.memberId());
+        } else if (!written) {
+            int half = views.size() / 2;
+            write(new ArrayList<>(views.subList(0, half)));
+            write(new ArrayList<>(views.subList(half, views.size())));
+        }
+        views.clear();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("book-view-recorder").daemon().unstarted(this::runFlusher);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        // Not interrupted, so an in-flight JDBC batch is never cut off; the flusher sees the flag within one interval
+        running = false;
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.error("Book view recorder did not finish within {}, {} views were not written", shutdownTimeout,
+                    queue.size());
+            return;
+        }
+        // Views that raced with the running flag after the flusher's final drain
+        List<BookView> late = new ArrayList<>();
+        queue.drainTo(late);
+        write(late);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server (and its graceful shutdown) so that no request can enqueue after the final drain
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.model.Book;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache of {@link BookDao#findBookById(int)}, and of {@link BookDao#findBooksByIds} for several books.
+ * <p>
+ * Holds at most {@code elibrary.book-cache.maximum-size} books, each for {@code elibrary.book-cache.ttl}. Ids that do
+ * not exist are cached too, for the shorter {@code elibrary.book-cache.negative-ttl}, so repeated requests for a bogus
+ * {@code book/:id} cost one query per TTL instead of one per request. Concurrent misses for the same id share a single
+ * query, and a failed query is not cached.
+ * </p>
+ * <p>
+ * Entries are dropped as soon as {@link BookDao} reports a change to the book's catalog entry or ratings through
+ * {@link BookChangedEvent}, and when the category of cached books is renamed or deleted. Recorded views are not: the
+ * books' view counts are updated on every flush of recorded views, which would evict the most read books all the time,
+ * so view counts are up to {@code elibrary.book-cache.ttl} old. The standard Caffeine metrics ({@code cache.gets},
+ * {@code cache.evictions}, {@code cache.load.duration}, ...) are published with {@code cache=books}. Returned
+ * {@link Book} instances are shared and must not be modified.
+ * </p>
+ */
+@Component
+public class BookCache {
+
+    private static final String CACHE_NAME = "books";
+
+    private final LoadingCache<Integer, Optional<Book>> cache;
+
+    BookCache(BookDao bookDao, MeterRegistry meterRegistry,
+            @Value("${elibrary.book-cache.maximum-size:10000}") long maximumSize,
+            @Value("${elibrary.book-cache.ttl:10m}") Duration ttl,
+            @Value("${elibrary.book-cache.negative-ttl:1m}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize)
+                .expireAfter(Expiry.writing((Integer id, Optional<Book> book) -> book.isPresent() ? ttl : negativeTtl))
+                .recordStats().build(new CacheLoader<>() {
+                    @Override
+                    public Optional<Book> load(Integer id) {
+                        return bookDao.findBookById(id);
+                    }
+
+                    // The misses of getAll in one query; ids it does not return are cached as missing
+                    @Override
+                    public Map<Integer, Optional<Book>> loadAll(Set<? extends Integer> ids) {
+                        Map<Integer, Optional<Book>> books = new HashMap<>();
+                        ids.forEach(id -> books.put(id, Optional.empty()));
+                        bookDao.findBooksByIds(List.copyOf(ids))
+                                .forEach(book -> books.put(book.getId(), Optional.of(book)));
+                        return books;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the book with the given id, or {@code null} if there is none.
+     */
+    public Book get(int id) {
+        return cache.get(id).orElse(null);
+    }
+
+    /**
+     * Returns the books with the given ids in the same order, leaving out ids that do not exist. The ids that are not
+     * cached are loaded together in one query.
+     */
+    public List<Book> getAll(List<Integer> ids) {
+        Map<Integer, Optional<Book>> books = cache.getAll(ids);
+        List<Book> found = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            books.getOrDefault(id, Optional.empty()).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    /**
+     * Drops the cached entry for the given book.
+     */
+    public void invalidate(int id) {
+        cache.invalidate(id);
+    }
+
+    @EventListener
+    void onBookChanged(BookChangedEvent event) {
+        if (event.type() == BookChangedEvent.Type.VIEWS) {
+            return;
+        }
+        if (event.isAll()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(event.bookIds());
+        }
+    }
+
+    // The books carry their category's name, and no longer show up at all once it is deleted
+    @EventListener
+    void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.type() == CategoryChangedEvent.Type.ADDED) {
+            return;
+        }
+        cache.asMap().values().removeIf(book -> book.isPresent() && book.get().getCategoryId() == event.id());
+    }
+}
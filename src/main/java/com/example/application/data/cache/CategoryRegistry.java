@@ -0,0 +1,145 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.dao.CategoryDao;
+import com.example.application.data.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Application-wide, in-memory view of the categories and their book counts.
+ * <p>
+ * The categories are loaded once with a single grouped query and shared by all UIs, looked up by id or by
+ * (case-insensitive) name. Adding, renaming and deleting a category through {@link CategoryDao} updates the registry in
+ * place via {@link CategoryChangedEvent}, so those changes are visible immediately. Book counts are not affected by
+ * category writes; they are refreshed by reloading everything once the snapshot is older than
+ * {@code elibrary.category-cache.ttl}. When that reload fails the previous snapshot is served until one succeeds.
+ * </p>
+ * <p>
+ * Returned {@link Category} instances are shared and must not be modified.
+ * </p>
+ */
+@Component
+public class CategoryRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryRegistry.class);
+    private static final Comparator<Category> BY_NAME = Comparator.comparing(Category::getName);
+
+    private final CategoryDao categoryDao;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+
+    CategoryRegistry(CategoryDao categoryDao, @Value("${elibrary.category-cache.ttl:10m}") Duration ttl) {
+        this.categoryDao = categoryDao;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns all categories ordered by name.
+     */
+    public List<Category> getAll() {
+        return current().categories();
+    }
+
+    /**
+     * Returns the category with the given id, or {@code null} if there is none.
+     */
+    public Category getById(int id) {
+        return current().byId().get(id);
+    }
+
+    /**
+     * Returns the category with the given name, ignoring case, or {@code null} if there is none.
+     */
+    public Category getByName(String name) {
+        return name == null ? null : current().byName().get(key(name));
+    }
+
+    /**
+     * Drops the cached categories so that the next lookup reloads them.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    @EventListener
+    synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Nothing loaded yet, the first lookup will see the change
+            return;
+        }
+        List<Category> categories = new ArrayList<>(current.categories());
+        categories.removeIf(category -> category.getId() == event.id());
+        if (event.type() != CategoryChangedEvent.Type.DELETED) {
+            Category previous = current.byId().get(event.id());
+            Category changed = new Category();
+            changed.setId(event.id());
+            changed.setName(event.name());
+            changed.setBookCount(previous != null ? previous.getBookCount() : 0);
+            categories.add(changed);
+            categories.sort(BY_NAME);
+        }
+        snapshot = Snapshot.of(categories, current.loadedAt());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt() <= ttlNanos) {
+            return current;
+        }
+        synchronized (this) {
+            // Another caller may have loaded it while this one waited for the lock
+            current = snapshot;
+            if (current == null || System.nanoTime() - current.loadedAt() > ttlNanos) {
+                current = load(current);
+            }
+            return current;
+        }
+    }
+
+    // A failed reload keeps the previous snapshot, unstamped so the next lookup tries again; with none it throws
+    private Snapshot load(Snapshot previous) {
+        try {
+            Snapshot loaded = Snapshot.of(categoryDao.getCategoriesWithBookCounts(), System.nanoTime());
+            snapshot = loaded;
+            return loaded;
+        } catch (RuntimeException e) {
+            if (previous == null) {
+                throw e;
+            }
+            log.warn("Reloading the categories failed, serving the previous snapshot", e);
+            return previous;
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Snapshot(List<Category> categories, Map<Integer, Category> byId, Map<String, Category> byName,
+            long loadedAt) {
+
+        static Snapshot of(List<Category> categories, long loadedAt) {
+            Map<Integer, Category> byId = new HashMap<>();
+            Map<String, Category> byName = new HashMap<>();
+            for (Category category : categories) {
+                byId.put(category.getId(), category);
+                byName.put(key(category.getName()), category);
+            }
+            return new Snapshot(List.copyOf(categories), Map.copyOf(byId), Map.copyOf(byName), loadedAt);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.model.HomeShelves;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application-wide cache of the home page shelves.
+ * <p>
+ * Every user sees the same newest, top rated and most viewed books, so they are loaded once and shared by all UIs. A
+ * background thread reloads them every {@code elibrary.home-cache.refresh-interval}, ahead of the
+ * {@code elibrary.home-cache.ttl} expiry, so a home page hit normally costs no query at all. Only when the cache is
+ * empty or the snapshot has outlived its TTL (for example because refreshes keep failing) does {@link #get()} load on
+ * the calling thread.
+ * </p>
+ * <p>
+ * Exposes {@code cache.gets} (tagged {@code result=hit|miss}), {@code elibrary.home.cache.refresh} and
+ * {@code elibrary.home.cache.age} through Micrometer.
+ * </p>
+ */
+@Component
+public class HomeShelfCache implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(HomeShelfCache.class);
+    private static final String CACHE_NAME = "home-shelves";
+
+    private final BookDao bookDao;
+    private final int shelfSize;
+    private final long ttlNanos;
+    private final Duration refreshInterval;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+
+    private volatile Snapshot snapshot;
+    private volatile ScheduledExecutorService refresher;
+
+    HomeShelfCache(BookDao bookDao, MeterRegistry meterRegistry,
+            @Value("${elibrary.home-cache.shelf-size:5}") int shelfSize,
+            @Value("${elibrary.home-cache.ttl:2m}") Duration ttl,
+            @Value("${elibrary.home-cache.refresh-interval:30s}") Duration refreshInterval) {
+        this.bookDao = bookDao;
+        this.shelfSize = shelfSize;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshInterval = refreshInterval;
+
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Home shelf lookups served from memory").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Home shelf lookups that had to query the database").register(meterRegistry);
+        this.refreshSuccess = Timer.builder("elibrary.home.cache.refresh").tag("outcome", "success")
+                .description("Time spent loading the home shelves").register(meterRegistry);
+        this.refreshFailure = Timer.builder("elibrary.home.cache.refresh").tag("outcome", "failure")
+                .description("Time spent loading the home shelves").register(meterRegistry);
+        Gauge.builder("elibrary.home.cache.age", this, HomeShelfCache::ageSeconds).baseUnit("seconds")
+                .description("Age of the cached home shelves").register(meterRegistry);
+    }
+
+    /**
+     * Returns the home shelves, loading them on the calling thread only if nothing fresh enough is cached.
+     */
+    public HomeShelves get() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            hits.increment();
+            return current.shelves();
+        }
+        misses.increment();
+        synchronized (this) {
+            // Another caller may have loaded it while this one waited for the lock
+            current = snapshot;
+            if (current == null || current.isExpired(ttlNanos)) {
+                current = load();
+            }
+            return current.shelves();
+        }
+    }
+
+    /**
+     * Drops the cached shelves so that the next {@link #get()} reloads them.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private synchronized Snapshot load() {
+        long start = System.nanoTime();
+        try {
+            HomeShelves shelves = bookDao.getHomeShelves(shelfSize);
+            Snapshot loaded = new Snapshot(shelves, System.nanoTime());
+            snapshot = loaded;
+            refreshSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return loaded;
+        } catch (RuntimeException e) {
+            refreshFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    // Reloads the shelves; on failure the previous snapshot stays until it expires
+    void refresh() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the home shelves failed, serving the previous snapshot", e);
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot current = snapshot;
+        return current == null ? Double.NaN : (System.nanoTime() - current.loadedAt()) / 1e9;
+    }
+
+    @Override
+    public void start() {
+        refresher = Executors
+                .newSingleThreadScheduledExecutor(Thread.ofPlatform().name("home-shelf-refresh").daemon().factory());
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        refresher.shutdownNow();
+        refresher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    private record Snapshot(HomeShelves shelves, long loadedAt) {
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt > ttlNanos;
+        }
+    }
+}
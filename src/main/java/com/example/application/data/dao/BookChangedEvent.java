@@ -0,0 +1,40 @@
+package com.example.application.data.dao;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published by {@link BookDao}, {@link ReviewDao} and the dataset generator after a write that changed what
+ * {@link BookDao} returns for some books.
+ *
+ * @param type
+ *            what changed about the books
+ * @param bookIds
+ *            the ids of the changed books, or {@code null} when any book may have changed
+ */
+public record BookChangedEvent(Type type, Set<Integer> bookIds) {
+
+    public enum Type {
+        /** A field of the catalog entry, such as the title, author, category or cover. */
+        CATALOG,
+        /** The book's ratings, and with them possibly its view count, after a rating or review was saved. */
+        RATINGS,
+        /** Only the book's view count, which changes on every flush of recorded views. */
+        VIEWS
+    }
+
+    public static final BookChangedEvent ALL_CATALOG = new BookChangedEvent(Type.CATALOG, null);
+    static final BookChangedEvent ALL_STATS = new BookChangedEvent(Type.RATINGS, null);
+
+    static BookChangedEvent ratings(int bookId) {
+        return new BookChangedEvent(Type.RATINGS, Set.of(bookId));
+    }
+
+    static BookChangedEvent views(Collection<Integer> bookIds) {
+        return new BookChangedEvent(Type.VIEWS, Set.copyOf(bookIds));
+    }
+
+    public boolean isAll() {
+        return bookIds == null;
+    }
+}
@@ -1,277 +1,587 @@
 package com.example.application.data.dao;
 
-import com.example.application.data.DBService;
 import com.example.application.data.model.Book;
 import com.example.application.data.model.BookContent;
+import com.example.application.data.model.BookCursor;
+import com.example.application.data.model.BookPage;
+import com.example.application.data.model.BookTitle;
+import com.example.application.data.model.BookView;
+import com.example.application.data.model.HomeShelves;
+import com.example.application.data.model.RatingHistogram;
+import com.example.application.data.model.ReadingHistoryPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
+// Stateless: every call borrows its own connection, statement and result set, so one instance is shared by all UIs.
+@Repository
 public class BookDao {
-    Connection conn;
-    PreparedStatement ps;
-    ResultSet rs;
-    Book book;
-    ArrayList<Book> books;
+    // View count and rating come from the incrementally maintained book_stats table, never from book_history
+    private static final String BOOK_COLUMNS = "b.*, c.name as category_name, COALESCE(s.view_count, 0) as view_count, "
+            + "COALESCE(s.avg_rating, 0) as avg_rating, "
+            + "COALESCE(s.rating_1, 0) as rating_1, COALESCE(s.rating_2, 0) as rating_2, "
+            + "COALESCE(s.rating_3, 0) as rating_3, COALESCE(s.rating_4, 0) as rating_4, "
+            + "COALESCE(s.rating_5, 0) as rating_5 ";
+    private static final String BOOK_TABLES = "FROM books b JOIN categories c ON b.category_id = c.id "
+            + "LEFT JOIN book_stats s ON s.book_id = b.id ";
+    static final String SELECT_BOOKS = "SELECT " + BOOK_COLUMNS + BOOK_TABLES;
+    // Every book has a book_stats row, so popularity and rating pages join it inner and can be read from its indexes,
+    // in order, instead of from books. The other orders read books and keep the outer join, so that a book without
+    // its row yet, as on the embedded databases, is still listed.
+    private static final String SELECT_STATS_PAGE = "SELECT " + BOOK_COLUMNS + "FROM book_stats s "
+            + "JOIN books b ON b.id = s.book_id JOIN categories c ON b.category_id = c.id ";
+
+    private static final Comparator<Book> NEWEST_FIRST = Comparator
+            .comparing(Book::getPublishDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Book::getId, Comparator.reverseOrder());
+    private static final Comparator<Book> TOP_RATED_FIRST = Comparator
+            .comparing(Book::getAverageRating, Comparator.reverseOrder())
+            .thenComparing(Book::getId, Comparator.reverseOrder());
+    private static final Comparator<Book> MOST_VIEWED_FIRST = Comparator.comparingInt(Book::getViewCount).reversed()
+            .thenComparing(Book::getId, Comparator.reverseOrder());
+
+    // Every counter is incremented in place (n = n + delta), so concurrent writers never read-modify-write a row.
+    // MySQL 8.0.20 deprecated VALUES(col) in ON DUPLICATE KEY UPDATE and warns on every such statement, so it gets the
+    // row alias form; H2, which backs the tests and the perf profile, does not parse row aliases and keeps VALUES(col).
+    private static final String INSERT_STATS = "INSERT INTO book_stats (book_id, category_id, view_count, "
+            + "rating_sum, rating_count, rating_1, rating_2, rating_3, rating_4, rating_5) "
+            + "VALUES (?, (SELECT category_id FROM books WHERE id = ?), ?, ?, ?, ?, ?, ?, ?, ?) ";
+    private static final String UPDATE_STATS = INSERT_STATS
+            + "AS new ON DUPLICATE KEY UPDATE view_count = view_count + new.view_count, "
+            + "rating_sum = rating_sum + new.rating_sum, rating_count = rating_count + new.rating_count, "
+            + "rating_1 = rating_1 + new.rating_1, rating_2 = rating_2 + new.rating_2, "
+            + "rating_3 = rating_3 + new.rating_3, rating_4 = rating_4 + new.rating_4, "
+            + "rating_5 = rating_5 + new.rating_5";
+    private static final String UPDATE_STATS_H2 = INSERT_STATS
+            + "ON DUPLICATE KEY UPDATE view_count = view_count + VALUES(view_count), "
+            + "rating_sum = rating_sum + VALUES(rating_sum), rating_count = rating_count + VALUES(rating_count), "
+            + "rating_1 = rating_1 + VALUES(rating_1), rating_2 = rating_2 + VALUES(rating_2), "
+            + "rating_3 = rating_3 + VALUES(rating_3), rating_4 = rating_4 + VALUES(rating_4), "
+            + "rating_5 = rating_5 + VALUES(rating_5)";
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DaoMetrics metrics;
 
     // Constructor
-    public BookDao() {
-        this.conn = DBService.getConnection();
+    public BookDao(DataSource dataSource, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.metrics = new DaoMetrics(meterRegistry);
     }
 
     // Get newest books (sorted by publish_date descending)
     public ArrayList<Book> getNewestBooks(int limit) {
-        books = new ArrayList<>();
-        try {
-            String sql = "SELECT b.*, c.name as category_name, COUNT(bh.id) as view_count, AVG(bh.rating) as avg_rating " +
-                    "FROM books b " +
-                    "JOIN categories c ON b.category_id = c.id " +
-                    "LEFT JOIN book_history bh ON b.id = bh.book_id " +
-                    "GROUP BY b.id " +
-                    "ORDER BY b.publish_date DESC LIMIT ?";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, limit);
-            rs = ps.executeQuery();
-
-            while (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategoryName(rs.getString("category_name"));
-                book.setPublishDate(rs.getDate("publish_date"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setImageCover(rs.getString("image_cover"));
-                book.setViewCount(rs.getInt("view_count"));
-                book.setAverageRating(rs.getDouble("avg_rating"));
-                books.add(book);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            closeResources();
-        }
-        return books;
+        String sql = SELECT_BOOKS + "ORDER BY b.publish_date DESC LIMIT ?";
+        return queryBooks(metrics.start("getNewestBooks"), sql, ps -> ps.setInt(1, limit));
     }
 
     // Get top rated books (sorted by average rating descending)
     public ArrayList<Book> getTopRatedBooks(int limit) {
-        books = new ArrayList<>();
-        try {
-            String sql = "SELECT b.*, c.name as category_name, COUNT(bh.id) as view_count, AVG(bh.rating) as avg_rating " +
-                    "FROM books b " +
-                    "JOIN categories c ON b.category_id = c.id " +
-                    "LEFT JOIN book_history bh ON b.id = bh.book_id " +
-                    "GROUP BY b.id " +
-                    "ORDER BY avg_rating DESC LIMIT ?";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, limit);
-            rs = ps.executeQuery();
-
-            while (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategoryName(rs.getString("category_name"));
-                book.setPublishDate(rs.getDate("publish_date"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setImageCover(rs.getString("image_cover"));
-                book.setViewCount(rs.getInt("view_count"));
-                book.setAverageRating(rs.getDouble("avg_rating"));
-                books.add(book);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            closeResources();
-        }
-        return books;
+        String sql = SELECT_BOOKS + "ORDER BY s.avg_rating DESC LIMIT ?";
+        return queryBooks(metrics.start("getTopRatedBooks"), sql, ps -> ps.setInt(1, limit));
     }
 
     // Get most viewed books (sorted by review count descending)
     public ArrayList<Book> getMostViewedBooks(int limit) {
-        books = new ArrayList<>();
-        try {
-            String sql = "SELECT b.*, c.name as category_name, COUNT(bh.id) as view_count, AVG(bh.rating) as avg_rating " +
-                    "FROM books b " +
-                    "JOIN categories c ON b.category_id = c.id " +
-                    "LEFT JOIN book_history bh ON b.id = bh.book_id " +
-                    "GROUP BY b.id " +
-                    "ORDER BY view_count DESC LIMIT ?";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, limit);
-            rs = ps.executeQuery();
+        String sql = SELECT_BOOKS + "ORDER BY s.view_count DESC LIMIT ?";
+        return queryBooks(metrics.start("getMostViewedBooks"), sql, ps -> ps.setInt(1, limit));
+    }
 
-            while (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategoryName(rs.getString("category_name"));
-                book.setPublishDate(rs.getDate("publish_date"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setImageCover(rs.getString("image_cover"));
-                book.setViewCount(rs.getInt("view_count"));
-                book.setAverageRating(rs.getDouble("avg_rating"));
-                books.add(book);
+    // Get every home page shelf in one round trip: one index-ordered LIMIT branch per shelf, glued with UNION ALL.
+    // A failed query throws, so that a cache of the shelves keeps what it has instead of caching empty shelves.
+    public HomeShelves getHomeShelves(int limit) {
+        String sql = "(SELECT 'newest' as shelf, " + BOOK_COLUMNS + BOOK_TABLES
+                + "ORDER BY b.publish_date DESC, b.id DESC LIMIT ?) UNION ALL (SELECT 'top_rated' as shelf, "
+                + BOOK_COLUMNS + BOOK_TABLES + "ORDER BY s.avg_rating DESC, b.id DESC LIMIT ?) UNION ALL "
+                + "(SELECT 'most_viewed' as shelf, " + BOOK_COLUMNS + BOOK_TABLES
+                + "ORDER BY s.view_count DESC, b.id DESC LIMIT ?)";
+        List<Book> newest = new ArrayList<>();
+        List<Book> topRated = new ArrayList<>();
+        List<Book> mostViewed = new ArrayList<>();
+
+        DaoMetrics.Call call = metrics.start("getHomeShelves");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            ps.setInt(2, limit);
+            ps.setInt(3, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                BookRowMapper mapper = new BookRowMapper(rs);
+                int shelf = rs.findColumn("shelf");
+                while (rs.next()) {
+                    switch (rs.getString(shelf)) {
+                    case "newest" -> newest.add(mapper.map(rs));
+                    case "top_rated" -> topRated.add(mapper.map(rs));
+                    default -> mostViewed.add(mapper.map(rs));
+                    }
+                }
             }
+            call.succeeded(newest.size() + topRated.size() + mostViewed.size());
         } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            closeResources();
+            call.failed(e);
+            throw new RuntimeException(e);
         }
-        return books;
+
+        // UNION ALL does not promise to keep each branch's order, so restore it here
+        newest.sort(NEWEST_FIRST);
+        topRated.sort(TOP_RATED_FIRST);
+        mostViewed.sort(MOST_VIEWED_FIRST);
+        return new HomeShelves(newest, topRated, mostViewed, topRated.isEmpty() ? null : topRated.getFirst());
     }
 
     // Get books by category with sorting options
     public ArrayList<Book> getBooksByCategory(String category, String sortBy) {
-        books = new ArrayList<>();
-        try {
-            String sql = "SELECT b.*, c.name as category_name, AVG(bh.rating) as avg_rating, COUNT(bh.id) as view_count " +
-                    "FROM books b " +
-                    "JOIN categories c ON b.category_id = c.id " +
-                    "LEFT JOIN book_history bh ON b.id = bh.book_id " +
-                    "WHERE c.name = ? " +
-                    "GROUP BY b.id ";
-
-            // Add sorting based on parameter
-            switch (sortBy.toLowerCase()) {
-                case "popular":
-                    sql += "ORDER BY view_count DESC";
-                    break;
-                case "rating":
-                    sql += "ORDER BY avg_rating DESC";
-                    break;
-                case "newest":
-                    sql += "ORDER BY b.publish_date DESC";
-                    break;
-                case "oldest":
-                    sql += "ORDER BY b.publish_date ASC";
-                    break;
-                default: // alphabetical
-                    sql += "ORDER BY b.title ASC";
+        BookSort sort = BookSort.fromKey(sortBy);
+        String sql = SELECT_BOOKS + "WHERE c.name = ? " + sort.orderBy();
+
+        return queryBooks(metrics.start("getBooksByCategory", sort.key()), sql, ps -> ps.setString(1, category));
+    }
+
+    // Get the page of books that follows the cursor (null for the first page), optionally within one category id.
+    // Seeks past the cursor instead of using OFFSET, so page 1000 costs the same as page 1.
+    public BookPage getBooksPage(Integer categoryId, BookSort sort, BookCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(sort.readsStats() ? SELECT_STATS_PAGE : SELECT_BOOKS);
+        if (categoryId != null) {
+            sql.append("WHERE ").append(sort.categoryColumn()).append(" = ? ");
+        }
+        if (after != null) {
+            sql.append(categoryId != null ? "AND " : "WHERE ").append(sort.keyset(after)).append(' ');
+        }
+        sql.append(sort.orderBy()).append(" LIMIT ?");
+
+        // One extra row tells whether there is a next page without a COUNT query
+        ArrayList<Book> books = queryBooks(metrics.start("getBooksPage", sort.key()), sql.toString(), ps -> {
+            int index = 1;
+            if (categoryId != null) {
+                ps.setInt(index++, categoryId);
             }
+            if (after != null) {
+                index = sort.bind(ps, index, after);
+            }
+            ps.setInt(index, limit + 1);
+        });
 
-            ps = conn.prepareStatement(sql);
-            ps.setString(1, category);
-            rs = ps.executeQuery();
+        if (books.size() <= limit) {
+            return new BookPage(books, null);
+        }
+        List<Book> page = books.subList(0, limit);
+        return new BookPage(page, BookCursor.after(page.getLast()));
+    }
 
-            while (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategoryName(rs.getString("category_name"));
-                book.setPublishDate(rs.getDate("publish_date"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setImageCover(rs.getString("image_cover"));
-                book.setAverageRating(rs.getDouble("avg_rating"));
-                book.setViewCount(rs.getInt("view_count"));
-                books.add(book);
+    // Get the page of books a member has read before the given book_history id (null for the first page), one entry
+    // per book, most recently read first. A book's position is its latest history row, so a book read again moves to
+    // the front instead of showing up twice.
+    public ReadingHistoryPage getRecentlyRead(int memberId, Integer before, int limit) {
+        String sql = "SELECT " + BOOK_COLUMNS + ", h.last_read_id " + BOOK_TABLES
+                + "JOIN (SELECT book_id, MAX(id) as last_read_id FROM book_history WHERE member_id = ? "
+                + "GROUP BY book_id" + (before != null ? " HAVING MAX(id) < ?" : "") + ") h ON h.book_id = b.id "
+                + "ORDER BY h.last_read_id DESC LIMIT ?";
+        List<Book> books = new ArrayList<>();
+        List<Integer> lastReadIds = new ArrayList<>();
+
+        DaoMetrics.Call call = metrics.start("getRecentlyRead");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            ps.setInt(index++, memberId);
+            if (before != null) {
+                ps.setInt(index++, before);
+            }
+            // One extra row tells whether there is a next page without a COUNT query
+            ps.setInt(index, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                BookRowMapper mapper = new BookRowMapper(rs);
+                while (rs.next()) {
+                    books.add(mapper.map(rs));
+                    lastReadIds.add(rs.getInt("last_read_id"));
+                }
             }
+            call.succeeded(books.size());
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
-        } finally {
-            closeResources();
         }
-        return books;
+
+        if (books.size() <= limit) {
+            return new ReadingHistoryPage(books, null);
+        }
+        return new ReadingHistoryPage(books.subList(0, limit), lastReadIds.get(limit - 1));
     }
 
     // Record a book view (add to book_history when user views book details)
     public boolean recordBookView(int bookId, int memberId) {
-        try {
-            String sql = "INSERT INTO book_history (book_id, member_id) VALUES (?, ?)";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, bookId);
-            ps.setInt(2, memberId);
-            int affectedRows = ps.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        } finally {
-            closeResources();
+        String sql = "INSERT INTO book_history (book_id, member_id) VALUES (?, ?)";
+
+        boolean success = inTransaction(metrics.start("recordBookView"), conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, bookId);
+                ps.setInt(2, memberId);
+                ps.executeUpdate();
+            }
+            updateStats(conn, bookId, 1, null);
+            return 1;
+        }) >= 0;
+        if (success) {
+            eventPublisher.publishEvent(BookChangedEvent.views(List.of(bookId)));
+        }
+        return success;
+    }
+
+    // Record many views at once: one JDBC batch for the history rows and one stats update per distinct book
+    public boolean recordBookViews(List<BookView> views) {
+        if (views.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO book_history (book_id, member_id) VALUES (?, ?)";
+
+        // Sorted by book id so concurrent writers always lock book_stats rows in the same order
+        Map<Integer, Integer> viewsPerBook = new TreeMap<>();
+        for (BookView view : views) {
+            viewsPerBook.merge(view.bookId(), 1, Integer::sum);
+        }
+
+        boolean success = inTransaction(metrics.start("recordBookViews"), conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (BookView view : views) {
+                    ps.setInt(1, view.bookId());
+                    ps.setInt(2, view.memberId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(updateStatsSql(conn))) {
+                for (Map.Entry<Integer, Integer> entry : viewsPerBook.entrySet()) {
+                    bindStats(ps, entry.getKey(), entry.getValue(), null);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return views.size();
+        }) >= 0;
+        if (success) {
+            eventPublisher.publishEvent(BookChangedEvent.views(viewsPerBook.keySet()));
+        }
+        return success;
+    }
+
+    // Record a rating (and optional review) for a book; counts as a view like every other book_history row
+    public boolean recordBookRating(int bookId, int memberId, double rating, String review) {
+        String sql = "INSERT INTO book_history (book_id, member_id, rating, review) VALUES (?, ?, ?, ?)";
+
+        boolean success = inTransaction(metrics.start("recordBookRating"), conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, bookId);
+                ps.setInt(2, memberId);
+                ps.setDouble(3, rating);
+                ps.setString(4, review);
+                ps.executeUpdate();
+            }
+            updateStats(conn, bookId, 1, rating);
+            return 1;
+        }) >= 0;
+        if (success) {
+            eventPublisher.publishEvent(BookChangedEvent.ratings(bookId));
         }
+        return success;
+    }
+
+    // Recompute book_stats from book_history and book_review in one transaction (backfill or repair after manual edits)
+    public int rebuildBookStats() {
+        String delete = "DELETE FROM book_stats";
+        // History ratings are doubles, counted under their star as RatingHistogram.stars rounds them
+        String insert = "INSERT INTO book_stats (book_id, category_id, view_count, rating_sum, rating_count, "
+                + "rating_1, rating_2, rating_3, rating_4, rating_5) "
+                + "SELECT b.id, b.category_id, COUNT(bh.id), COALESCE(SUM(bh.rating), 0) + COALESCE(r.rating_sum, 0), "
+                + "COUNT(bh.rating) + COALESCE(r.rating_count, 0), "
+                + "SUM(CASE WHEN FLOOR(bh.rating + 0.5) <= 1 THEN 1 ELSE 0 END) + COALESCE(r.rating_1, 0), "
+                + "SUM(CASE WHEN FLOOR(bh.rating + 0.5) = 2 THEN 1 ELSE 0 END) + COALESCE(r.rating_2, 0), "
+                + "SUM(CASE WHEN FLOOR(bh.rating + 0.5) = 3 THEN 1 ELSE 0 END) + COALESCE(r.rating_3, 0), "
+                + "SUM(CASE WHEN FLOOR(bh.rating + 0.5) = 4 THEN 1 ELSE 0 END) + COALESCE(r.rating_4, 0), "
+                + "SUM(CASE WHEN FLOOR(bh.rating + 0.5) >= 5 THEN 1 ELSE 0 END) + COALESCE(r.rating_5, 0) "
+                + "FROM books b LEFT JOIN book_history bh ON b.id = bh.book_id "
+                + "LEFT JOIN (SELECT book_id, SUM(rating) as rating_sum, COUNT(*) as rating_count, "
+                + "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END) as rating_1, "
+                + "SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END) as rating_2, "
+                + "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END) as rating_3, "
+                + "SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END) as rating_4, "
+                + "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) as rating_5 "
+                + "FROM book_review GROUP BY book_id) r ON r.book_id = b.id "
+                + "GROUP BY b.id, b.category_id, r.rating_sum, r.rating_count, r.rating_1, r.rating_2, r.rating_3, "
+                + "r.rating_4, r.rating_5";
+        int rebuilt = inTransaction(metrics.start("rebuildBookStats"), conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(delete)) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(insert)) {
+                return ps.executeUpdate();
+            }
+        });
+        if (rebuilt < 0) {
+            return -1;
+        }
+        eventPublisher.publishEvent(BookChangedEvent.ALL_STATS);
+        return rebuilt;
     }
 
     // Get book details by ID
     public Book getBookById(int id) {
-        book = null;
+        String sql = SELECT_BOOKS + "WHERE b.id = ?";
+        ArrayList<Book> books = queryBooks(metrics.start("getBookById"), sql, ps -> ps.setInt(1, id));
+        return books.isEmpty() ? null : books.getFirst();
+    }
+
+    // Find book details by ID; unlike getBookById a failed query throws instead of looking like a missing book
+    public Optional<Book> findBookById(int id) {
+        String sql = SELECT_BOOKS + "WHERE b.id = ?";
         try {
-            String sql = "SELECT b.*, c.name as category_name, AVG(bh.rating) as avg_rating, COUNT(bh.id) as view_count " +
-                    "FROM books b " +
-                    "JOIN categories c ON b.category_id = c.id " +
-                    "LEFT JOIN book_history bh ON b.id = bh.book_id " +
-                    "WHERE b.id = ? " +
-                    "GROUP BY b.id";
-            ps = conn.prepareStatement(sql);
-            ps.setInt(1, id);
-            rs = ps.executeQuery();
-
-            if (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setCategoryId(rs.getInt("category_id"));
-                book.setCategoryName(rs.getString("category_name"));
-                book.setPublishDate(rs.getDate("publish_date"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setSynopsis(rs.getString("synopsis"));
-                book.setImageCover(rs.getString("image_cover"));
-                book.setAverageRating(rs.getDouble("avg_rating"));
-                book.setViewCount(rs.getInt("view_count"));
-            }
+            return selectBooks(metrics.start("findBookById"), sql, ps -> ps.setInt(1, id)).stream().findFirst();
         } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            closeResources();
+            throw new RuntimeException(e);
         }
-        return book;
     }
 
-    // Get Book Contents by Book ID
-    public ArrayList<BookContent> getBookContents(int bookId) {
-        ArrayList<BookContent> bookContents = new ArrayList<>();
+    // Find the books with the given ids in one query, in no particular order; missing ids are left out, and like
+    // findBookById a failed query throws
+    public List<Book> findBooksByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = SELECT_BOOKS + "WHERE b.id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
         try {
-            String query = "SELECT * from book_content WHERE book_id = ?";
-            ps = conn.prepareStatement(query);
-            ps.setInt(1, bookId);
-            rs = ps.executeQuery();
+            return selectBooks(metrics.start("findBooksByIds"), sql, ps -> {
+                int index = 1;
+                for (int id : ids) {
+                    ps.setInt(index++, id);
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
+    // Get the books with an id above afterId in id order, to walk the whole catalog in chunks; a failed query throws
+    public List<Book> getBooksAfter(int afterId, int limit) {
+        String sql = SELECT_BOOKS + "WHERE b.id > ? ORDER BY b.id LIMIT ?";
+        try {
+            return selectBooks(metrics.start("getBooksAfter"), sql, ps -> {
+                ps.setInt(1, afterId);
+                ps.setInt(2, limit);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Get the ids of the books in a category, whether or not it still exists; a failed query throws
+    public List<Integer> getBookIdsByCategory(int categoryId) {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT id FROM books WHERE category_id = ?";
+
+        DaoMetrics.Call call = metrics.start("getBookIdsByCategory");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, categoryId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            call.succeeded(ids.size());
+        } catch (SQLException e) {
+            call.failed(e);
+            throw new RuntimeException(e);
+        }
+        return ids;
+    }
+
+    // Get the title, author and view count of every book, for the search suggestions; a failed query throws
+    public List<BookTitle> getBookTitles() {
+        List<BookTitle> titles = new ArrayList<>();
+        String sql = "SELECT b.id, b.title, b.author, COALESCE(s.view_count, 0) FROM books b "
+                + "LEFT JOIN book_stats s ON s.book_id = b.id";
+
+        DaoMetrics.Call call = metrics.start("getBookTitles");
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                BookContent bookContent = new BookContent();
-                bookContent.setId(rs.getInt("id"));
-                bookContent.setBookId(rs.getInt("book_id"));
-                bookContent.setContent(rs.getString("content"));
-                bookContents.add(bookContent);
+                titles.add(new BookTitle(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4)));
             }
+            call.succeeded(titles.size());
         } catch (SQLException e) {
+            call.failed(e);
             throw new RuntimeException(e);
         }
+        return titles;
+    }
+
+    // Get the chapter index of a book: number, length and a short preview, without transferring any chapter text
+    public ArrayList<BookContent> getChapterIndex(int bookId, int previewLength) {
+        ArrayList<BookContent> chapters = new ArrayList<>();
+        String query = "SELECT id, book_id, CHAR_LENGTH(content) as content_length, "
+                + "SUBSTRING(content, 1, ?) as preview FROM book_content WHERE book_id = ? ORDER BY id";
+
+        DaoMetrics.Call call = metrics.start("getChapterIndex");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setInt(1, previewLength);
+            ps.setInt(2, bookId);
+            try (ResultSet rs = ps.executeQuery()) {
+                int chapterNumber = 0;
+                while (rs.next()) {
+                    BookContent chapter = new BookContent();
+                    chapter.setId(rs.getInt(1));
+                    chapter.setBookId(rs.getInt(2));
+                    chapter.setContentLength(rs.getInt(3));
+                    chapter.setPreview(rs.getString(4));
+                    chapter.setChapterNumber(++chapterNumber);
+                    chapters.add(chapter);
+                }
+            }
+            call.succeeded(chapters.size());
+        } catch (SQLException e) {
+            call.failed(e);
+            e.printStackTrace();
+        }
+        return chapters;
+    }
+
+    // Get up to length characters of a chapter starting at the given offset, or null if it does not belong to the book.
+    // Only the slice leaves the database and it is read through a character stream, so a page of a huge chapter costs
+    // the same as a page of a short one. Characters are code points, as MySQL counts them.
+    public String getChapterText(int bookId, int contentId, int offset, int length) {
+        String query = "SELECT SUBSTRING(content, ?, ?) FROM book_content WHERE id = ? AND book_id = ?";
 
-        return bookContents;
+        DaoMetrics.Call call = metrics.start("getChapterText");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setInt(1, offset + 1);
+            ps.setInt(2, length);
+            ps.setInt(3, contentId);
+            ps.setInt(4, bookId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    call.succeeded(0);
+                    return null;
+                }
+                try (Reader reader = rs.getCharacterStream(1)) {
+                    if (reader == null) {
+                        call.succeeded(1);
+                        return "";
+                    }
+                    // Read to the end: a slice with surrogate pairs is longer than length in Java chars
+                    StringBuilder text = new StringBuilder(length);
+                    char[] buffer = new char[8192];
+                    int n;
+                    while ((n = reader.read(buffer)) != -1) {
+                        text.append(buffer, 0, n);
+                    }
+                    call.succeeded(1);
+                    return text.toString();
+                }
+            }
+        } catch (SQLException | IOException e) {
+            call.failed(e);
+            e.printStackTrace();
+            return null;
+        }
     }
 
-    // Helper method to close resources
-    private void closeResources() {
+    // Add views and at most one rating to the stats row of a book, creating it on first use; also used by ReviewDao
+    static void updateStats(Connection conn, int bookId, int views, Double rating) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(updateStatsSql(conn))) {
+            bindStats(ps, bookId, views, rating);
+            ps.executeUpdate();
+        }
+    }
+
+    private static String updateStatsSql(Connection conn) throws SQLException {
+        return "H2".equals(conn.getMetaData().getDatabaseProductName()) ? UPDATE_STATS_H2 : UPDATE_STATS;
+    }
+
+    private static void bindStats(PreparedStatement ps, int bookId, int views, Double rating) throws SQLException {
+        ps.setInt(1, bookId);
+        ps.setInt(2, bookId);
+        ps.setInt(3, views);
+        ps.setDouble(4, rating == null ? 0 : rating);
+        ps.setInt(5, rating == null ? 0 : 1);
+        for (int stars = 1; stars <= 5; stars++) {
+            ps.setInt(5 + stars, rating != null && RatingHistogram.stars(rating) == stars ? 1 : 0);
+        }
+    }
+
+    // Run the work on one connection and commit it as a single transaction; returns the rows it wrote, or -1 if it
+    // failed and was rolled back
+    private int inTransaction(DaoMetrics.Call call, TransactionWork work) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rows = work.execute(conn);
+                conn.commit();
+                call.succeeded(rows);
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            call.failed(e);
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // Run a book list query and map every row with a single BookRowMapper
+    private ArrayList<Book> queryBooks(DaoMetrics.Call call, String sql, ParameterBinder binder) {
         try {
-            if (rs != null) rs.close();
-            if (ps != null) ps.close();
+            return selectBooks(call, sql, binder);
         } catch (SQLException e) {
             e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private ArrayList<Book> selectBooks(DaoMetrics.Call call, String sql, ParameterBinder binder) throws SQLException {
+        ArrayList<Book> books = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                BookRowMapper mapper = new BookRowMapper(rs);
+                while (rs.next()) {
+                    books.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            call.failed(e);
+            throw e;
         }
+        call.succeeded(books.size());
+        return books;
+    }
+
+    @FunctionalInterface
+    interface ParameterBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface TransactionWork {
+        // Returns the number of rows written
+        int execute(Connection conn) throws SQLException;
     }
 }
@@ -0,0 +1,66 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.example.application.data.model.RatingHistogram;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row of the book list queries onto a {@link Book}.
+ * <p>
+ * Column positions are resolved once when the mapper is created for a result set, and every row is then read by index.
+ * This avoids a label lookup per column per row and keeps the mapping in one place for every {@link BookDao} query. A
+ * mapper is bound to the result set it was created for and is never shared between threads.
+ * </p>
+ */
+final class BookRowMapper {
+
+    private final int id;
+    private final int title;
+    private final int author;
+    private final int categoryId;
+    private final int categoryName;
+    private final int publishDate;
+    private final int publisher;
+    private final int synopsis;
+    private final int imageCover;
+    private final int viewCount;
+    private final int averageRating;
+    private final int[] ratings = new int[5];
+
+    BookRowMapper(ResultSet rs) throws SQLException {
+        this.id = rs.findColumn("id");
+        this.title = rs.findColumn("title");
+        this.author = rs.findColumn("author");
+        this.categoryId = rs.findColumn("category_id");
+        this.categoryName = rs.findColumn("category_name");
+        this.publishDate = rs.findColumn("publish_date");
+        this.publisher = rs.findColumn("publisher");
+        this.synopsis = rs.findColumn("synopsis");
+        this.imageCover = rs.findColumn("image_cover");
+        this.viewCount = rs.findColumn("view_count");
+        this.averageRating = rs.findColumn("avg_rating");
+        for (int stars = 1; stars <= 5; stars++) {
+            this.ratings[stars - 1] = rs.findColumn("rating_" + stars);
+        }
+    }
+
+    Book map(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getInt(id));
+        book.setTitle(rs.getString(title));
+        book.setAuthor(rs.getString(author));
+        book.setCategoryId(rs.getInt(categoryId));
+        book.setCategoryName(rs.getString(categoryName));
+        book.setPublishDate(rs.getDate(publishDate));
+        book.setPublisher(rs.getString(publisher));
+        book.setSynopsis(rs.getString(synopsis));
+        book.setImageCover(rs.getString(imageCover));
+        book.setViewCount(rs.getInt(viewCount));
+        book.setAverageRating(rs.getDouble(averageRating));
+        book.setRatingHistogram(new RatingHistogram(rs.getInt(ratings[0]), rs.getInt(ratings[1]), rs.getInt(ratings[2]),
+                rs.getInt(ratings[3]), rs.getInt(ratings[4])));
+        return book;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.BookCursor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The orderings supported by the book listings, each with the id tie-breaker and the keyset predicate that continues
+ * after a {@link BookCursor}.
+ * <p>
+ * Every order is total (the book id breaks ties), so "rows after the cursor" is well defined and a page never repeats
+ * or skips a book. The keyset predicates are spelled out as {@code key < ? OR (key = ? AND id < ?)} rather than row
+ * value comparisons, which MySQL turns into an index range scan more reliably.
+ * </p>
+ * <p>
+ * The popularity and rating orders read {@code book_stats} first and use its raw columns, its own book id and its copy
+ * of the category id, so the {@code (view_count, book_id)} and {@code (avg_rating, book_id)} indexes serve the order
+ * and the seek of the whole catalog, and the {@code (category_id, view_count, book_id)} and
+ * {@code (category_id, avg_rating, book_id)} indexes those of one category. This relies on every book having a
+ * {@code book_stats} row. The date and title orders read {@code books} and its {@code (category_id, ...)} indexes.
+ * Books without a publish date come last in both date orders.
+ * </p>
+ */
+public enum BookSort {
+    POPULAR("popular", "s.view_count", "s.book_id", "s.category_id", false, false) {
+        @Override
+        int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+            ps.setInt(index, cursor.viewCount());
+            ps.setInt(index + 1, cursor.viewCount());
+            return index + 2;
+        }
+    },
+    RATING("rating", "s.avg_rating", "s.book_id", "s.category_id", false, false) {
+        @Override
+        int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+            ps.setDouble(index, cursor.averageRating());
+            ps.setDouble(index + 1, cursor.averageRating());
+            return index + 2;
+        }
+    },
+    NEWEST("newest", "b.publish_date", "b.id", "b.category_id", false, true) {
+        @Override
+        int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+            ps.setDate(index, cursor.publishDate());
+            ps.setDate(index + 1, cursor.publishDate());
+            return index + 2;
+        }
+    },
+    OLDEST("oldest", "b.publish_date", "b.id", "b.category_id", true, true) {
+        @Override
+        int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+            ps.setDate(index, cursor.publishDate());
+            ps.setDate(index + 1, cursor.publishDate());
+            return index + 2;
+        }
+    },
+    ALPHABETICAL("alphabetical", "b.title", "b.id", "b.category_id", true, false) {
+        @Override
+        int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+            ps.setString(index, cursor.title());
+            ps.setString(index + 1, cursor.title());
+            return index + 2;
+        }
+    };
+
+    private final String key;
+    private final String categoryColumn;
+    private final String orderBy;
+    private final String keyset;
+    // Only for a nullable key: the keyset predicate after a book without one, which are all listed last
+    private final String nullKeyset;
+
+    BookSort(String key, String column, String id, String categoryColumn, boolean ascending, boolean nullable) {
+        String direction = ascending ? "ASC" : "DESC";
+        String comparison = ascending ? ">" : "<";
+        this.key = key;
+        this.categoryColumn = categoryColumn;
+        if (nullable) {
+            // NULL sorts first or last depending on the database and direction, so undated books are put last
+            // explicitly; a plain comparison would never match them and paging would skip or stop at them
+            this.orderBy = "ORDER BY " + column + " IS NULL, " + column + " " + direction + ", " + id + " " + direction;
+            this.keyset = "(" + column + " IS NULL OR " + column + " " + comparison + " ? OR (" + column + " = ? AND "
+                    + id + " " + comparison + " ?))";
+            this.nullKeyset = "(" + column + " IS NULL AND " + id + " " + comparison + " ?)";
+        } else {
+            this.orderBy = "ORDER BY " + column + " " + direction + ", " + id + " " + direction;
+            this.keyset = "(" + column + " " + comparison + " ? OR (" + column + " = ? AND " + id + " " + comparison
+                    + " ?))";
+            this.nullKeyset = null;
+        }
+    }
+
+    // The sort parameter used by getBooksByCategory; anything unknown sorts alphabetically as it always has
+    public static BookSort fromKey(String key) {
+        for (BookSort sort : values()) {
+            if (sort.key.equalsIgnoreCase(key)) {
+                return sort;
+            }
+        }
+        return ALPHABETICAL;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    // Whether the page is read from book_stats, which every book has a row in, rather than from books
+    boolean readsStats() {
+        return categoryColumn.startsWith("s.");
+    }
+
+    // The column a page of one category filters on, in the table the page is read from
+    String categoryColumn() {
+        return categoryColumn;
+    }
+
+    String orderBy() {
+        return orderBy;
+    }
+
+    // The predicate for the rows after the cursor, which depends on whether the cursor's key is null
+    String keyset(BookCursor after) {
+        return nullKeyset != null && after.publishDate() == null ? nullKeyset : keyset;
+    }
+
+    // Binds the cursor's sort key for the first two placeholders of keyset(after) and the id for the last
+    int bind(PreparedStatement ps, int index, BookCursor cursor) throws SQLException {
+        int next = nullKeyset != null && cursor.publishDate() == null ? index : bindKey(ps, index, cursor);
+        ps.setInt(next, cursor.id());
+        return next + 1;
+    }
+
+    abstract int bindKey(PreparedStatement ps, int index, BookCursor cursor) throws SQLException;
+}
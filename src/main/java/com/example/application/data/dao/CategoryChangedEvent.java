@@ -0,0 +1,18 @@
+package com.example.application.data.dao;
+
+/**
+ * Published by {@link CategoryDao} after a category was added, renamed or deleted.
+ *
+ * @param type
+ *            what happened to the category
+ * @param id
+ *            the id of the category
+ * @param name
+ *            the category's current name, or {@code null} when it was deleted
+ */
+public record CategoryChangedEvent(Type type, int id, String name) {
+
+    public enum Type {
+        ADDED, RENAMED, DELETED
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.application.data.dao;
 
-import com.example.application.data.DBService;
 import com.example.application.data.model.Category;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
+@Repository
 public class CategoryDao {
-    private Connection conn;
-
-    public CategoryDao() {
-        this.conn = DBService.getConnection();
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DaoMetrics metrics;
+
+    public CategoryDao(DataSource dataSource, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.metrics = new DaoMetrics(meterRegistry);
     }
 
     // Get all categories
@@ -19,8 +27,10 @@ public class CategoryDao {
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT * FROM categories ORDER BY name";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
+        DaoMetrics.Call call = metrics.start("getAllCategories");
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 Category category = new Category();
@@ -28,18 +38,47 @@ public class CategoryDao {
                 category.setName(rs.getString("name"));
                 categories.add(category);
             }
+            call.succeeded(categories.size());
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
         }
         return categories;
     }
 
+    // Get all categories with the number of books in each; a failed query throws instead of returning no categories
+    public List<Category> getCategoriesWithBookCounts() {
+        List<Category> categories = new ArrayList<>();
+        String sql = "SELECT c.id, c.name, COUNT(b.id) as book_count FROM categories c "
+                + "LEFT JOIN books b ON b.category_id = c.id GROUP BY c.id, c.name ORDER BY c.name";
+
+        DaoMetrics.Call call = metrics.start("getCategoriesWithBookCounts");
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                Category category = new Category();
+                category.setId(rs.getInt("id"));
+                category.setName(rs.getString("name"));
+                category.setBookCount(rs.getInt("book_count"));
+                categories.add(category);
+            }
+            call.succeeded(categories.size());
+        } catch (SQLException e) {
+            call.failed(e);
+            throw new RuntimeException(e);
+        }
+        return categories;
+    }
+
     // Get category by ID
     public Category getCategoryById(int id) {
         String sql = "SELECT * FROM categories WHERE id = ?";
         Category category = null;
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        DaoMetrics.Call call = metrics.start("getCategoryById");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -48,7 +87,9 @@ public class CategoryDao {
                     category.setName(rs.getString("name"));
                 }
             }
+            call.succeeded(category == null ? 0 : 1);
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
         }
         return category;
@@ -58,18 +99,24 @@ public class CategoryDao {
     public boolean addCategory(String name) {
         String sql = "INSERT INTO categories (name) VALUES (?)";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        DaoMetrics.Call call = metrics.start("addCategory");
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, name);
             int affectedRows = ps.executeUpdate();
+            call.succeeded(affectedRows);
 
             if (affectedRows > 0) {
                 try (ResultSet rs = ps.getGeneratedKeys()) {
                     if (rs.next()) {
+                        eventPublisher.publishEvent(
+                                new CategoryChangedEvent(CategoryChangedEvent.Type.ADDED, rs.getInt(1), name));
                         return true;
                     }
                 }
             }
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
         }
         return false;
@@ -79,12 +126,18 @@ public class CategoryDao {
     public boolean updateCategory(int id, String newName) {
         String sql = "UPDATE categories SET name = ? WHERE id = ?";
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+        DaoMetrics.Call call = metrics.start("updateCategory");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, newName);
             ps.setInt(2, id);
             int affectedRows = ps.executeUpdate();
-            return affectedRows > 0;
+            call.succeeded(affectedRows);
+            if (affectedRows > 0) {
+                eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.RENAMED, id, newName));
+                return true;
+            }
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
         }
         return false;
@@ -94,24 +147,20 @@ public class CategoryDao {
     public boolean deleteCategory(int id) {
         String deleteSql = "DELETE FROM categories WHERE id = ?";
 
-        try (PreparedStatement deletePs = conn.prepareStatement(deleteSql)) {
+        DaoMetrics.Call call = metrics.start("deleteCategory");
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement deletePs = conn.prepareStatement(deleteSql)) {
             deletePs.setInt(1, id);
             int affectedRows = deletePs.executeUpdate();
-            return affectedRows > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
-
-    // Close resources (call this when done with the DAO)
-    public void close() {
-        try {
-            if (conn != null) {
-                conn.close();
+            call.succeeded(affectedRows);
+            if (affectedRows > 0) {
+                eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, id, null));
+                return true;
             }
         } catch (SQLException e) {
+            call.failed(e);
             e.printStackTrace();
         }
+        return false;
     }
 }
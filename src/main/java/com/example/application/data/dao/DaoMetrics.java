@@ -0,0 +1,88 @@
+package com.example.application.data.dao;
+
+import com.example.application.jfr.DaoCallEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency, row count and error metrics of the DAO operations, tagged by operation and sort order.
+ * <p>
+ * Every public DAO method starts a {@link Call} and ends it exactly once, with the number of rows read or written or
+ * with the exception that made it fail, including failures the DAO reports as an empty result. Percentiles and
+ * Prometheus histogram buckets are switched on for these meters in {@code application.properties}. The time spent
+ * waiting for a pooled connection is recorded by HikariCP itself as {@code hikaricp.connections.acquire}. Each call is
+ * also a {@link DaoCallEvent} for Java Flight Recorder.
+ * </p>
+ */
+final class DaoMetrics {
+
+    static final String NO_SORT = "none";
+
+    private final Meter.MeterProvider<Timer> timers;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+    private final Meter.MeterProvider<Counter> errors;
+
+    DaoMetrics(MeterRegistry meterRegistry) {
+        this.timers = Timer.builder("elibrary.dao.operation")
+                .description("Time spent in a DAO operation, from borrowing the connection to mapping the last row")
+                .withRegistry(meterRegistry);
+        this.rows = DistributionSummary.builder("elibrary.dao.rows").baseUnit("rows")
+                .description("Rows read or written by a DAO operation").withRegistry(meterRegistry);
+        this.errors = Counter.builder("elibrary.dao.errors").description("DAO operations that failed with an exception")
+                .withRegistry(meterRegistry);
+    }
+
+    Call start(String operation) {
+        return start(operation, NO_SORT);
+    }
+
+    Call start(String operation, String sort) {
+        return new Call(operation, sort);
+    }
+
+    final class Call {
+        private final String operation;
+        private final String sort;
+        private final Tags tags;
+        private final DaoCallEvent event = new DaoCallEvent();
+        private final long start = System.nanoTime();
+
+        private Call(String operation, String sort) {
+            this.operation = operation;
+            this.sort = sort;
+            this.tags = Tags.of("operation", operation, "sort", sort);
+            event.begin();
+        }
+
+        // Ends a call that succeeded after reading or writing the given number of rows
+        void succeeded(int rowCount) {
+            timers.withTags(tags.and("outcome", "success")).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            rows.withTags(tags).record(rowCount);
+            commit(rowCount, false);
+        }
+
+        // Ends a call that failed
+        void failed(Exception e) {
+            timers.withTags(tags.and("outcome", "error")).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errors.withTags(tags.and("exception", e.getClass().getSimpleName())).increment();
+            commit(0, true);
+        }
+
+        private void commit(int rowCount, boolean failed) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.sort = sort;
+                event.rows = rowCount;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
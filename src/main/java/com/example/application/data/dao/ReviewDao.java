@@ -0,0 +1,111 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Review;
+import com.example.application.data.model.ReviewCursor;
+import com.example.application.data.model.ReviewPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Book reviews in the book_review table. Stateless like BookDao: every call borrows its own connection.
+@Repository
+public class ReviewDao {
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DaoMetrics metrics;
+
+    public ReviewDao(DataSource dataSource, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.metrics = new DaoMetrics(meterRegistry);
+    }
+
+    // Get the page of a book's reviews that follows the cursor (null for the first page), newest first.
+    // Seeks along idx_book_review_book_created instead of using OFFSET, so "load more" never rereads earlier pages.
+    public ReviewPage getReviews(int bookId, ReviewCursor after, int limit) {
+        String sql = "SELECT r.id, r.book_id, r.member_id, m.name as member_name, r.rating, r.comment, r.created_at "
+                + "FROM book_review r LEFT JOIN members m ON m.id = r.member_id WHERE r.book_id = ? "
+                + (after != null ? "AND (r.created_at < ? OR (r.created_at = ? AND r.id < ?)) " : "")
+                + "ORDER BY r.created_at DESC, r.id DESC LIMIT ?";
+        List<Review> reviews = new ArrayList<>();
+
+        DaoMetrics.Call call = metrics.start("getReviews");
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            ps.setInt(index++, bookId);
+            if (after != null) {
+                ps.setTimestamp(index++, after.createdAt());
+                ps.setTimestamp(index++, after.createdAt());
+                ps.setInt(index++, after.id());
+            }
+            // One extra row tells whether there is a next page without a COUNT query
+            ps.setInt(index, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reviews.add(new Review(rs.getInt("id"), rs.getInt("book_id"), rs.getInt("member_id"),
+                            rs.getString("member_name"), rs.getInt("rating"), rs.getString("comment"),
+                            rs.getTimestamp("created_at")));
+                }
+            }
+            call.succeeded(reviews.size());
+        } catch (SQLException e) {
+            call.failed(e);
+            e.printStackTrace();
+        }
+
+        if (reviews.size() <= limit) {
+            return new ReviewPage(reviews, null);
+        }
+        List<Review> page = reviews.subList(0, limit);
+        return new ReviewPage(page, ReviewCursor.after(page.getLast()));
+    }
+
+    // Save a review and add its rating to book_stats in the same transaction, so the book's average never has to be
+    // recomputed from all reviews
+    public boolean addReview(int bookId, int memberId, int rating, String comment) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5: " + rating);
+        }
+        String sql = "INSERT INTO book_review (book_id, member_id, rating, comment) VALUES (?, ?, ?, ?)";
+
+        boolean success;
+        DaoMetrics.Call call = metrics.start("addReview");
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, bookId);
+                    ps.setInt(2, memberId);
+                    ps.setInt(3, rating);
+                    ps.setString(4, comment);
+                    ps.executeUpdate();
+                }
+                BookDao.updateStats(conn, bookId, 0, (double) rating);
+                conn.commit();
+                call.succeeded(1);
+                success = true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            call.failed(e);
+            e.printStackTrace();
+            success = false;
+        }
+        if (success) {
+            eventPublisher.publishEvent(BookChangedEvent.ratings(bookId));
+        }
+        return success;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.application.data.dataset;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty elibrary database with a synthetic catalog at a configurable scale.
+ * <p>
+ * {@code elibrary.dataset.categories} categories, {@code members} members and {@code books} books are written first.
+ * Popularity follows a Zipf distribution over a random ranking of the books, so a few hundred books get most of the
+ * {@code history} views, and the same holds for categories and for how much members read. A quarter of the views carry
+ * a rating around the book's own quality and one in five of those a short review. The {@code content-books} most
+ * popular books get about {@code chapters-per-book} chapters of around {@code chapter-length} characters each.
+ * Everything is drawn from one random generator seeded with {@code elibrary.dataset.seed}, so the same settings give
+ * the same data.
+ * </p>
+ * <p>
+ * Rows are written with JDBC batches of {@code batch-size}, committed per batch. The production indexes from
+ * {@code db/book_indexes.sql} are created once the rows are in, and {@code book_stats} is rebuilt last. A
+ * {@link BookChangedEvent} for the whole catalog then tells the caches and the search index to start over.
+ * </p>
+ */
+@Component
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] COVERS = { "ancient.jpeg", "great_adventure.jpeg", "leader_bio.jpeg",
+            "programming.jpeg", "quantum.jpeg" };
+    private static final String[] CATEGORIES = { "Fiksi", "Sejarah", "Sains", "Biografi", "Teknologi", "Puisi",
+            "Anak-anak", "Agama", "Ekonomi", "Filsafat", "Psikologi", "Kesehatan", "Memasak", "Perjalanan", "Seni",
+            "Hukum", "Politik", "Pendidikan", "Olahraga", "Komik", "Misteri", "Romansa", "Horor", "Fantasi" };
+    private static final String[] PUBLISHERS = { "Gramedia Pustaka Utama", "Bentang Pustaka", "Mizan", "Erlangga",
+            "Balai Pustaka", "Republika Penerbit", "Kepustakaan Populer Gramedia", "Elex Media Komputindo",
+            "Marjin Kiri", "Gagas Media", "Penerbit Buku Kompas", "Grasindo" };
+    private static final LocalDate FIRST_PUBLISHED = LocalDate.of(1960, 1, 1);
+    private static final double RATED_SHARE = 0.25;
+    private static final double REVIEWED_SHARE = 0.2;
+
+    private final DataSource dataSource;
+    private final BookDao bookDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int categories;
+    private final int members;
+    private final int books;
+    private final int history;
+    private final int contentBooks;
+    private final int chaptersPerBook;
+    private final int chapterLength;
+    private final int batchSize;
+    private final long seed;
+
+    DatasetGenerator(DataSource dataSource, BookDao bookDao, ApplicationEventPublisher eventPublisher,
+            @Value("${elibrary.dataset.categories:24}") int categories,
+            @Value("${elibrary.dataset.members:20000}") int members,
+            @Value("${elibrary.dataset.books:100000}") int books,
+            @Value("${elibrary.dataset.history:5000000}") int history,
+            @Value("${elibrary.dataset.content-books:500}") int contentBooks,
+            @Value("${elibrary.dataset.chapters-per-book:16}") int chaptersPerBook,
+            @Value("${elibrary.dataset.chapter-length:18000}") int chapterLength,
+            @Value("${elibrary.dataset.batch-size:1000}") int batchSize,
+            @Value("${elibrary.dataset.seed:42}") long seed) {
+        this.dataSource = dataSource;
+        this.bookDao = bookDao;
+        this.eventPublisher = eventPublisher;
+        this.categories = categories;
+        this.members = members;
+        this.books = books;
+        this.history = history;
+        this.contentBooks = Math.min(contentBooks, books);
+        this.chaptersPerBook = chaptersPerBook;
+        this.chapterLength = chapterLength;
+        this.batchSize = batchSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the dataset, refusing to touch a database that already has books.
+     *
+     * @throws IllegalStateException
+     *             if there are books already
+     */
+    public void generate() throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            long existing = count(conn, "books");
+            if (existing > 0) {
+                throw new IllegalStateException("The database already has " + existing + " books");
+            }
+
+            int[] categoryIds = insertCategories(conn);
+            int[] memberIds = insertMembers(conn, random);
+            int[] bookIds = insertBooks(conn, random, categoryIds);
+
+            // Popularity ranks over a shuffled catalog, so the most read books are spread over ids and categories
+            shuffle(bookIds, random);
+            shuffle(memberIds, random);
+            double[] quality = new double[bookIds.length];
+            for (int i = 0; i < quality.length; i++) {
+                quality[i] = 2.5 + random.nextDouble() * 2.3;
+            }
+            insertHistory(conn, random, bookIds, memberIds, quality);
+            insertContent(conn, random, bookIds);
+        }
+
+        time("indexes", () -> {
+            ResourceDatabasePopulator indexes = new ResourceDatabasePopulator(
+                    new ClassPathResource("db/book_indexes.sql"));
+            // Indexes that already exist are kept as they are
+            indexes.setContinueOnError(true);
+            indexes.execute(dataSource);
+            return -1;
+        });
+        time("book_stats", () -> {
+            int rebuilt = bookDao.rebuildBookStats();
+            if (rebuilt < 0) {
+                throw new SQLException("Rebuilding book_stats failed");
+            }
+            return rebuilt;
+        });
+        eventPublisher.publishEvent(BookChangedEvent.ALL_CATALOG);
+    }
+
+    private int[] insertCategories(Connection conn) throws SQLException {
+        time("categories", () -> {
+            try (Batch batch = new Batch(conn, "INSERT INTO categories (name) VALUES (?)")) {
+                for (int i = 0; i < categories; i++) {
+                    batch.ps.setString(1, i < CATEGORIES.length ? CATEGORIES[i] : "Kategori " + (i + 1));
+                    batch.add();
+                }
+            }
+            return categories;
+        });
+        return ids(conn, "categories");
+    }
+
+    private int[] insertMembers(Connection conn, SplittableRandom random) throws SQLException {
+        time("members", () -> {
+            try (Batch batch = new Batch(conn,
+                    "INSERT INTO members (name, birthdate, email, password, status) VALUES (?, ?, ?, NULL, ?)")) {
+                for (int i = 1; i <= members; i++) {
+                    batch.ps.setString(1, Prose.name(random));
+                    batch.ps.setDate(2, Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(60 * 365))));
+                    batch.ps.setString(3, "anggota" + i + "@example.com");
+                    batch.ps.setBoolean(4, random.nextInt(20) != 0);
+                    batch.add();
+                }
+            }
+            return members;
+        });
+        return ids(conn, "members");
+    }
+
+    private int[] insertBooks(Connection conn, SplittableRandom random, int[] categoryIds) throws SQLException {
+        ZipfSampler category = new ZipfSampler(categoryIds.length, 0.8);
+        long days = ChronoUnit.DAYS.between(FIRST_PUBLISHED, LocalDate.now());
+        time("books", () -> {
+            try (Batch batch = new Batch(conn, "INSERT INTO books (category_id, title, author, publisher, synopsis, "
+                    + "image_cover, publish_date) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < books; i++) {
+                    batch.ps.setInt(1, categoryIds[category.sample(random)]);
+                    batch.ps.setString(2, Prose.title(random));
+                    batch.ps.setString(3, Prose.name(random));
+                    batch.ps.setString(4, PUBLISHERS[random.nextInt(PUBLISHERS.length)]);
+                    batch.ps.setString(5, Prose.text(random, 200 + random.nextInt(600)));
+                    batch.ps.setString(6, COVERS[i % COVERS.length]);
+                    // More books are published every year, so recent dates are drawn more often
+                    batch.ps.setDate(7,
+                            Date.valueOf(FIRST_PUBLISHED.plusDays((long) (days * Math.sqrt(random.nextDouble())))));
+                    batch.add();
+                }
+            }
+            return books;
+        });
+        return ids(conn, "books");
+    }
+
+    private void insertHistory(Connection conn, SplittableRandom random, int[] bookIds, int[] memberIds,
+            double[] quality) throws SQLException {
+        ZipfSampler book = new ZipfSampler(bookIds.length, 1.1);
+        ZipfSampler member = new ZipfSampler(memberIds.length, 0.6);
+        time("book_history", () -> {
+            try (Batch batch = new Batch(conn,
+                    "INSERT INTO book_history (book_id, member_id, rating, review) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < history; i++) {
+                    int rank = book.sample(random);
+                    batch.ps.setInt(1, bookIds[rank]);
+                    batch.ps.setInt(2, memberIds[member.sample(random)]);
+                    if (random.nextDouble() < RATED_SHARE) {
+                        double stars = Math.rint(quality[rank] + random.nextDouble(-1.2, 1.2));
+                        batch.ps.setDouble(3, Math.clamp(stars, 1, 5));
+                        if (random.nextDouble() < REVIEWED_SHARE) {
+                            batch.ps.setString(4, Prose.sentence(random));
+                        } else {
+                            batch.ps.setNull(4, Types.VARCHAR);
+                        }
+                    } else {
+                        batch.ps.setNull(3, Types.DOUBLE);
+                        batch.ps.setNull(4, Types.VARCHAR);
+                    }
+                    batch.add();
+                }
+            }
+            return history;
+        });
+    }
+
+    // The most popular books come first in bookIds, and those are the ones people read
+    private void insertContent(Connection conn, SplittableRandom random, int[] bookIds) throws SQLException {
+        time("book_content", () -> {
+            int chapters = 0;
+            try (Batch batch = new Batch(conn, "INSERT INTO book_content (book_id, content) VALUES (?, ?)")) {
+                for (int rank = 0; rank < contentBooks; rank++) {
+                    int count = Math.max(1, chaptersPerBook / 2 + random.nextInt(chaptersPerBook + 1));
+                    for (int chapter = 0; chapter < count; chapter++) {
+                        batch.ps.setInt(1, bookIds[rank]);
+                        batch.ps.setString(2, Prose.text(random, (int) (chapterLength * random.nextDouble(0.5, 1.5))));
+                        batch.add();
+                        chapters++;
+                    }
+                }
+            }
+            return chapters;
+        });
+    }
+
+    private static long count(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // The ids the inserts were given, whatever the auto-increment counters were at
+    private static int[] ids(Connection conn, String table) throws SQLException {
+        int[] ids = new int[(int) count(conn, table)];
+        try (Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT id FROM " + table + " ORDER BY id")) {
+            for (int i = 0; rs.next(); i++) {
+                ids[i] = rs.getInt(1);
+            }
+        }
+        return ids;
+    }
+
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private static void time(String table, Step step) throws SQLException {
+        long start = System.nanoTime();
+        int rows = step.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (rows < 0) {
+            log.info("Generated {} in {} s", table, String.format("%.1f", seconds));
+        } else {
+            log.info("Generated {}: {} rows in {} s", table, rows, String.format("%.1f", seconds));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        // Returns the number of rows written, or -1 for a step that does not write rows
+        int run() throws SQLException;
+    }
+
+    // A prepared insert executed and committed every batchSize rows
+    private final class Batch implements AutoCloseable {
+        private final Connection conn;
+        private final PreparedStatement ps;
+        private int pending;
+
+        Batch(Connection conn, String sql) throws SQLException {
+            this.conn = conn;
+            this.ps = conn.prepareStatement(sql);
+        }
+
+        void add() throws SQLException {
+            ps.addBatch();
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                ps.executeBatch();
+                conn.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                ps.close();
+            }
+        }
+    }
+}
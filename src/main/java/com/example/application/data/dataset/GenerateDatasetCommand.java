@@ -0,0 +1,73 @@
+package com.example.application.data.dataset;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * One-shot fill of an empty database with a synthetic dataset, see {@link DatasetGenerator}.
+ * <p>
+ * Meant for the {@code perf} profile, which runs the application on an embedded H2 database in MySQL mode under
+ * {@code ./perf-data}. Generate the data once, at any scale, and exit:
+ * </p>
+ * <!-- spotless:off -->
+ * <pre>
+ * ./mvnw -Pperf spring-boot:run \
+ *     -Dspring-boot.run.arguments="--generate-dataset --elibrary.dataset.books=100000 \
+ *     --elibrary.dataset.history=5000000"
+ * </pre>
+ * <!-- spotless:on -->
+ * <p>
+ * Then start the application with {@code ./mvnw -Pperf} to browse it. Delete {@code ./perf-data} to start over.
+ * </p>
+ */
+@Component
+class GenerateDatasetCommand implements ApplicationRunner {
+
+    static final String OPTION = "generate-dataset";
+
+    private static final Logger log = LoggerFactory.getLogger(GenerateDatasetCommand.class);
+
+    private final DatasetGenerator generator;
+    private final DataSource dataSource;
+    private final ApplicationContext context;
+
+    GenerateDatasetCommand(DatasetGenerator generator, DataSource dataSource, ApplicationContext context) {
+        this.generator = generator;
+        this.dataSource = dataSource;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean generated;
+        try {
+            // Loading holds its connection for minutes on purpose, which is not a leak worth a stack trace
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                dataSource.unwrap(HikariDataSource.class).setLeakDetectionThreshold(0);
+            }
+            generator.generate();
+            generated = true;
+        } catch (Exception e) {
+            log.error("Generating the dataset failed", e);
+            generated = false;
+        }
+        long seconds = (System.nanoTime() - start) / 1_000_000_000;
+        if (generated) {
+            log.info("Generated the dataset in {} s", seconds);
+        }
+        int exitCode = generated ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.application.data.dataset;
+
+import java.util.SplittableRandom;
+
+// Indonesian-looking filler text, titles and names, so search, stemming and text columns see realistic input
+final class Prose {
+
+    private static final String[] WORDS = { "yang", "dan", "di", "itu", "dengan", "untuk", "tidak", "ini", "dari",
+            "dalam", "akan", "pada", "juga", "saya", "ke", "karena", "bisa", "ada", "mereka", "kata", "rumah", "hari",
+            "malam", "jalan", "kota", "desa", "sungai", "laut", "gunung", "hujan", "angin", "cahaya", "waktu", "anak",
+            "ibu", "ayah", "guru", "sahabat", "perjalanan", "kenangan", "harapan", "rahasia", "cerita", "buku", "surat",
+            "pintu", "jendela", "pasar", "sekolah", "kebun", "perahu", "pelabuhan", "berjalan", "melihat", "mendengar",
+            "menulis", "membaca", "pulang", "pergi", "menunggu", "tersenyum", "berlari", "bertanya", "menjawab",
+            "merasa", "tahu", "lama", "baru", "besar", "kecil", "tua", "muda", "panjang", "gelap", "terang", "sunyi",
+            "ramai", "indah", "jauh", "dekat", "pelan", "cepat", "sudah", "belum", "masih", "selalu", "kemudian" };
+    private static final String[] NOUNS = { "Laut", "Hujan", "Senja", "Pelangi", "Gunung", "Sungai", "Bulan",
+            "Matahari", "Angin", "Kota", "Desa", "Rumah", "Jalan", "Pelabuhan", "Hutan", "Pulau", "Bintang", "Langit",
+            "Kabut", "Sekolah" };
+    private static final String[] QUALITIES = { "Terakhir", "Sunyi", "Biru", "Merah", "Tua", "Hilang", "Abadi", "Kecil",
+            "Jauh", "Pertama", "Rahasia", "Gelap", "Terang", "Tersembunyi", "Baru" };
+    private static final String[] FIRST_NAMES = { "Andi", "Budi", "Citra", "Dewi", "Eka", "Fajar", "Gita", "Hendra",
+            "Indah", "Joko", "Kartika", "Lestari", "Made", "Nur", "Putri", "Rizki", "Sari", "Tono", "Wayan", "Yuni" };
+    private static final String[] LAST_NAMES = { "Hirata", "Santoso", "Wijaya", "Pratama", "Kusuma", "Siregar",
+            "Nasution", "Hidayat", "Saputra", "Lubis", "Setiawan", "Gunawan", "Harahap", "Wibowo", "Rahman" };
+
+    private Prose() {
+    }
+
+    static String title(SplittableRandom random) {
+        String noun = pick(random, NOUNS);
+        String quality = pick(random, QUALITIES);
+        return switch (random.nextInt(4)) {
+        case 0 -> noun + " " + quality;
+        case 1 -> "Kisah " + noun + " " + quality;
+        case 2 -> noun + " di Atas " + pick(random, NOUNS);
+        default -> quality + " " + noun;
+        };
+    }
+
+    static String name(SplittableRandom random) {
+        return pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+    }
+
+    static String sentence(SplittableRandom random) {
+        int words = 6 + random.nextInt(14);
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = pick(random, WORDS);
+            if (i == 0) {
+                sentence.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                sentence.append(i == words / 2 && random.nextInt(3) == 0 ? ", " : " ").append(word);
+            }
+        }
+        return sentence.append('.').toString();
+    }
+
+    // About the given number of characters, in paragraphs of a few sentences
+    static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length + 200);
+        while (text.length() < length) {
+            int sentences = 3 + random.nextInt(6);
+            for (int i = 0; i < sentences; i++) {
+                text.append(sentence(random)).append(' ');
+            }
+            text.setCharAt(text.length() - 1, '\n');
+            text.append('\n');
+        }
+        return text.toString().strip();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
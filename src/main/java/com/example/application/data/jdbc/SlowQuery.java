@@ -0,0 +1,13 @@
+package com.example.application.data.jdbc;
+
+import java.time.Instant;
+import java.util.List;
+
+// A statement that ran for at least the slow-query threshold: its parameters, the rows it read or wrote (-1 when
+// unknown) and the EXPLAIN output of the first time it was slow, empty while that is still being captured
+public record SlowQuery(Instant at, double millis, long rows, String sql, List<String> parameters, List<String> plan) {
+
+    SlowQuery withPlan(List<String> plan) {
+        return new SlowQuery(at, millis, rows, sql, parameters, plan);
+    }
+}
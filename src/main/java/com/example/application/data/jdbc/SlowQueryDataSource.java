@@ -0,0 +1,230 @@
+package com.example.application.data.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Times every statement run on connections of the wrapped pool and hands those at or over the threshold to the
+ * {@link SlowQueryLog}.
+ * <p>
+ * Connections, statements and result sets are wrapped in dynamic proxies that remember the SQL and the parameters bound
+ * to it. A query is timed from its execute call until its result set is closed, so reading and mapping the rows counts
+ * too, and its rows are those the caller actually read. Updates and batches are timed around the call and count the
+ * rows they changed. Unwrapping goes straight to the pool, so HikariCP metrics and health checks still see it.
+ * </p>
+ */
+final class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final Supplier<SlowQueryLog> slowQueryLog;
+
+    SlowQueryDataSource(DataSource target, Supplier<SlowQueryLog> slowQueryLog) {
+        super(target);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    private static <T> T wrap(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(
+                Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    // Calls the method on the target, throwing what it threw rather than the reflection wrapper
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies keep identity semantics instead of forwarding equals and hashCode to the object they wrap
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+        case "equals" -> proxy == args[0];
+        case "hashCode" -> System.identityHashCode(proxy);
+        default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object same = identity(proxy, method, args);
+            if (same != null) {
+                return same;
+            }
+            Object result = call(connection, method, args);
+            return switch (method.getName()) {
+            case "prepareCall" ->
+                wrap(CallableStatement.class, result, new StatementHandler((Statement) result, (String) args[0]));
+            case "prepareStatement" ->
+                wrap(PreparedStatement.class, result, new StatementHandler((Statement) result, (String) args[0]));
+            case "createStatement" -> wrap(Statement.class, result, new StatementHandler((Statement) result, null));
+            default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final List<Object> parameters = new ArrayList<>();
+
+        // The query whose result set is still open
+        private String querySql;
+        private long started;
+        private long rows;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object same = identity(proxy, method, args);
+            if (same != null) {
+                return same;
+            }
+            String name = method.getName();
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            switch (name) {
+            case "executeQuery" -> {
+                finishQuery();
+                long start = System.nanoTime();
+                ResultSet resultSet = (ResultSet) call(statement, method, args);
+                querySql = sql;
+                started = start;
+                rows = 0;
+                return wrap(ResultSet.class, resultSet, new ResultSetHandler(resultSet, this));
+            }
+            case "executeUpdate", "executeLargeUpdate", "execute", "executeBatch", "executeLargeBatch" -> {
+                finishQuery();
+                long start = System.nanoTime();
+                Object result = call(statement, method, args);
+                finish(sql, System.nanoTime() - start, changedRows(result));
+                return result;
+            }
+            case "close" -> {
+                finishQuery();
+                return call(statement, method, args);
+            }
+            default -> {
+                return call(statement, method, args);
+            }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private long changedRows(Object result) throws SQLException {
+            return switch (result) {
+            case Integer count -> count;
+            case Long count -> count;
+            case int[] counts -> sum(counts);
+            case long[] counts -> Arrays.stream(counts).filter(count -> count > 0).sum();
+            // execute() returned whether there is a result set; the caller reads it or the update count
+            case Boolean hasResultSet -> hasResultSet ? -1 : statement.getUpdateCount();
+            case null, default -> -1;
+            };
+        }
+
+        private long sum(int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                // SUCCESS_NO_INFO is negative
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+
+        void finishQuery() {
+            if (querySql != null) {
+                String sql = querySql;
+                querySql = null;
+                finish(sql, System.nanoTime() - started, rows);
+            }
+        }
+
+        private void finish(String sql, long nanos, long rowCount) {
+            SlowQueryLog log = slowQueryLog.get();
+            if (log != null && log.isSlow(nanos)) {
+                log.record(obtainTargetDataSource(), sql, parameters, nanos, rowCount);
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet resultSet, StatementHandler statement) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object same = identity(proxy, method, args);
+            if (same != null) {
+                return same;
+            }
+            Object result = call(resultSet, method, args);
+            switch (method.getName()) {
+            case "next" -> {
+                if ((Boolean) result) {
+                    statement.rows++;
+                }
+            }
+            case "close" -> statement.finishQuery();
+            default -> {
+            }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.application.data.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every {@link DataSource} bean in a {@link SlowQueryDataSource}.
+ * <p>
+ * The {@link SlowQueryLog} is looked up on the first slow statement rather than injected, so that this post-processor
+ * does not pull it and the meter registry into existence before the other post-processors are registered.
+ * </p>
+ */
+@Component
+class SlowQueryDataSourceWrapper implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    SlowQueryDataSourceWrapper(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+            return new SlowQueryDataSource(dataSource, SingletonSupplier.of(slowQueryLog::getIfAvailable));
+        }
+        return bean;
+    }
+}
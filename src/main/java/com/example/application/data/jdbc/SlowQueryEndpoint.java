@@ -0,0 +1,31 @@
+package com.example.application.data.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/slowqueries lists the recent slow statements newest first, DELETE empties the list. The statements
+// carry their parameters, member data included, so the endpoint is only open to administrators.
+@Component
+@Endpoint(id = "slowqueries")
+class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return slowQueryLog.getSlowQueries();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.application.data.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The most recent statements that ran for at least {@code elibrary.slow-queries.threshold}, as recorded by
+ * {@link SlowQueryDataSource}.
+ * <p>
+ * The last {@code elibrary.slow-queries.capacity} slow statements are kept in a ring buffer, with their bound
+ * parameters, duration and row count, and can be read through the {@code slowqueries} actuator endpoint. The first time
+ * a statement is slow it is run again under {@code EXPLAIN} with the same parameters, in the background and on a
+ * connection of its own, and the plan is shown with every later occurrence. Plans are kept for at most
+ * {@value #MAX_PLANS} distinct statements.
+ * </p>
+ */
+@Component
+public class SlowQueryLog implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    static final int MAX_PLANS = 1000;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    // Only these can be explained; DDL and session statements cannot
+    private static final List<String> EXPLAINABLE = List.of("SELECT", "(", "WITH", "INSERT", "UPDATE", "DELETE",
+            "REPLACE");
+
+    private final long thresholdNanos;
+    private final SlowQuery[] entries;
+    private final Counter recorded;
+    private final Map<String, List<String>> plans = new ConcurrentHashMap<>();
+
+    private int next;
+    private int size;
+    private volatile ExecutorService explainer;
+
+    SlowQueryLog(@Value("${elibrary.slow-queries.threshold:500ms}") Duration threshold,
+            @Value("${elibrary.slow-queries.capacity:200}") int capacity, MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.entries = new SlowQuery[capacity];
+        this.recorded = Counter.builder("elibrary.slow-queries")
+                .description("Statements that took at least the slow-query threshold").register(meterRegistry);
+    }
+
+    /**
+     * Returns the slow statements still in the buffer, newest first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> queries = new ArrayList<>();
+        synchronized (entries) {
+            for (int i = 1; i <= size; i++) {
+                queries.add(entries[(next - i + entries.length) % entries.length]);
+            }
+        }
+        return queries.stream().map(query -> query.withPlan(plans.get(query.sql()))).toList();
+    }
+
+    /**
+     * Empties the buffer and forgets the plans, so the next slow occurrence of every statement is explained again.
+     */
+    public void clear() {
+        synchronized (entries) {
+            Arrays.fill(entries, null);
+            next = 0;
+            size = 0;
+        }
+        plans.clear();
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    // Called by SlowQueryDataSource with the pool it wraps, which EXPLAIN runs on so that it is not recorded itself
+    void record(DataSource dataSource, String sql, List<Object> parameters, long nanos, long rows) {
+        if (sql == null || entries.length == 0) {
+            return;
+        }
+        SlowQuery query = new SlowQuery(Instant.now(), nanos / 1_000_000.0, rows, sql, format(parameters), null);
+        synchronized (entries) {
+            entries[next] = query;
+            next = (next + 1) % entries.length;
+            size = Math.min(size + 1, entries.length);
+        }
+        recorded.increment();
+        log.warn("Slow query ({} ms, {} rows): {} {}", Math.round(query.millis()), rows, sql, query.parameters());
+
+        ExecutorService current = explainer;
+        if (current != null && plans.size() < MAX_PLANS && isExplainable(sql)
+                && plans.putIfAbsent(sql, List.of()) == null) {
+            List<Object> values = new ArrayList<>(parameters);
+            try {
+                current.execute(() -> plans.put(sql, explain(dataSource, sql, values)));
+            } catch (RejectedExecutionException e) {
+                plans.remove(sql);
+            }
+        }
+    }
+
+    private static List<String> explain(DataSource dataSource, String sql, List<Object> parameters) {
+        for (Object value : parameters) {
+            if (value instanceof InputStream || value instanceof Reader) {
+                return List.of("Not explained: a parameter is a stream");
+            }
+        }
+        List<String> plan = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> header = new ArrayList<>();
+                for (int column = 1; column <= meta.getColumnCount(); column++) {
+                    header.add(meta.getColumnLabel(column));
+                }
+                plan.add(String.join(" | ", header));
+                while (rs.next()) {
+                    List<String> row = new ArrayList<>();
+                    for (int column = 1; column <= meta.getColumnCount(); column++) {
+                        row.add(String.valueOf(rs.getObject(column)));
+                    }
+                    plan.add(String.join(" | ", row));
+                }
+            }
+        } catch (SQLException e) {
+            return List.of("EXPLAIN failed: " + e.getMessage());
+        }
+        log.info("Plan of slow query {}:\n{}", sql, String.join("\n", plan));
+        return plan;
+    }
+
+    private static boolean isExplainable(String sql) {
+        String start = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return EXPLAINABLE.stream().anyMatch(start::startsWith);
+    }
+
+    private static List<String> format(List<Object> parameters) {
+        List<String> formatted = new ArrayList<>(parameters.size());
+        for (Object value : parameters) {
+            if (value == null) {
+                formatted.add("NULL");
+            } else if (value instanceof InputStream || value instanceof Reader) {
+                formatted.add("<stream>");
+            } else if (value instanceof CharSequence text) {
+                String string = text.length() > MAX_PARAMETER_LENGTH
+                        ? text.subSequence(0, MAX_PARAMETER_LENGTH) + "..."
+                        : text.toString();
+                formatted.add("'" + string + "'");
+            } else {
+                formatted.add(String.valueOf(value));
+            }
+        }
+        return formatted;
+    }
+
+    @Override
+    public void start() {
+        explainer = Executors
+                .newSingleThreadExecutor(Thread.ofPlatform().name("slow-query-explainer").daemon().factory());
+    }
+
+    @Override
+    public void stop() {
+        explainer.shutdownNow();
+        explainer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return explainer != null;
+    }
+}
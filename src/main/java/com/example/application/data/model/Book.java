@@ -17,6 +17,15 @@ public class Book {
     //History
     private Double averageRating;
     private int viewCount;
+    private RatingHistogram ratingHistogram = RatingHistogram.EMPTY;
+
+    public RatingHistogram getRatingHistogram() {
+        return ratingHistogram;
+    }
+
+    public void setRatingHistogram(RatingHistogram ratingHistogram) {
+        this.ratingHistogram = ratingHistogram;
+    }
 
     public int getViewCount() {
         return viewCount;
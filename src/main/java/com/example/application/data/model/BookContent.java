@@ -6,6 +6,11 @@ public class BookContent {
     private int id, bookId;
     private String content;
 
+    //Chapter index (filled without loading content)
+    private int chapterNumber;
+    private int contentLength;
+    private String preview;
+
     //Book
     private int categoryId;
     private String title;
@@ -18,6 +23,30 @@ public class BookContent {
     //Category
     private String categoryName;
 
+    public int getChapterNumber() {
+        return chapterNumber;
+    }
+
+    public void setChapterNumber(int chapterNumber) {
+        this.chapterNumber = chapterNumber;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(int contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public String getPreview() {
+        return preview;
+    }
+
+    public void setPreview(String preview) {
+        this.preview = preview;
+    }
+
     public String getCategoryName() {
         return categoryName;
     }
@@ -106,5 +135,4 @@ public class BookContent {
         this.content = content;
     }
 
-
 }
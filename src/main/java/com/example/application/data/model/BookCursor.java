@@ -0,0 +1,13 @@
+package com.example.application.data.model;
+
+import java.sql.Date;
+
+// Position after the last book of a page: the values of every sort key plus the id that breaks ties
+public record BookCursor(int viewCount, double averageRating, Date publishDate, String title, int id) {
+
+    public static BookCursor after(Book book) {
+        Double rating = book.getAverageRating();
+        return new BookCursor(book.getViewCount(), rating == null ? 0 : rating, book.getPublishDate(), book.getTitle(),
+                book.getId());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.application.data.model;
+
+import java.util.List;
+
+// One page of a book listing; next is null when this is the last page
+public record BookPage(List<Book> books, BookCursor next) {
+
+    public BookPage {
+        books = List.copyOf(books);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.application.data.model;
+
+// The parts of a book that search suggestions are made of
+public record BookTitle(int id, String title, String author, int viewCount) {
+}
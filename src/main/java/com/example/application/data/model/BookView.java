@@ -0,0 +1,5 @@
+package com.example.application.data.model;
+
+// A single "member opened this book" event, queued until it is written to book_history
+public record BookView(int bookId, int memberId) {
+}
@@ -3,6 +3,7 @@ package com.example.application.data.model;
 public class Category {
     private int id;
     private String name;
+    private int bookCount;
 
     public String getName() {
         return name;
@@ -19,4 +20,12 @@ public class Category {
     public void setId(int id) {
         this.id = id;
     }
+
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(int bookCount) {
+        this.bookCount = bookCount;
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.application.data.model;
+
+import java.util.List;
+
+// The book shelves shown on the home page, plus the book featured in its banner (null when there are no books)
+public record HomeShelves(List<Book> newest, List<Book> topRated, List<Book> mostViewed, Book featured) {
+
+    public HomeShelves {
+        newest = List.copyOf(newest);
+        topRated = List.copyOf(topRated);
+        mostViewed = List.copyOf(mostViewed);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.application.data.model;
+
+// Number of ratings per star, read from the book_stats counters together with the average
+public record RatingHistogram(int oneStar, int twoStars, int threeStars, int fourStars, int fiveStars) {
+
+    public static final RatingHistogram EMPTY = new RatingHistogram(0, 0, 0, 0, 0);
+
+    // The star a rating is counted under: rounded half up and clamped to 1..5
+    public static int stars(double rating) {
+        return (int) Math.max(1, Math.min(5, Math.round(rating)));
+    }
+
+    public int count(int stars) {
+        return switch (stars) {
+        case 1 -> oneStar;
+        case 2 -> twoStars;
+        case 3 -> threeStars;
+        case 4 -> fourStars;
+        case 5 -> fiveStars;
+        default -> throw new IllegalArgumentException("Stars must be between 1 and 5: " + stars);
+        };
+    }
+
+    public int total() {
+        return oneStar + twoStars + threeStars + fourStars + fiveStars;
+    }
+}
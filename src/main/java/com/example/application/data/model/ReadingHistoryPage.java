@@ -0,0 +1,16 @@
+package com.example.application.data.model;
+
+import java.util.List;
+
+// One page of the books a member has read, most recently read first; next is the book_history id to continue
+// before, null when this is the last page
+public record ReadingHistoryPage(List<Book> books, Integer next) {
+
+    public ReadingHistoryPage {
+        books = List.copyOf(books);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.application.data.model;
+
+import java.sql.Timestamp;
+
+// A member's rating (1 to 5 stars) and comment on a book; memberName is null when the member no longer exists
+public record Review(int id, int bookId, int memberId, String memberName, int rating, String comment,
+        Timestamp createdAt) {
+}
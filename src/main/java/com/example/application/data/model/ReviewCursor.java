@@ -0,0 +1,11 @@
+package com.example.application.data.model;
+
+import java.sql.Timestamp;
+
+// Position after the last review of a page: its creation time plus the id that breaks ties
+public record ReviewCursor(Timestamp createdAt, int id) {
+
+    public static ReviewCursor after(Review review) {
+        return new ReviewCursor(review.createdAt(), review.id());
+    }
+}
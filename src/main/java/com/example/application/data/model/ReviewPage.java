@@ -0,0 +1,15 @@
+package com.example.application.data.model;
+
+import java.util.List;
+
+// One page of a book's reviews, newest first; next is null when this is the last page
+public record ReviewPage(List<Review> reviews, ReviewCursor next) {
+
+    public ReviewPage {
+        reviews = List.copyOf(reviews);
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
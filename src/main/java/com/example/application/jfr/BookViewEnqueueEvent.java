@@ -0,0 +1,30 @@
+package com.example.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("elibrary.BookViewEnqueue")
+@Label("Book View Enqueue")
+@Category({ "eLibrary", "Book Views" })
+@Description("Recording a book view: a wait for room on the write-behind queue, or a synchronous write when it is full")
+@StackTrace(false)
+public class BookViewEnqueueEvent extends Event {
+
+    @Label("Book Id")
+    public int bookId;
+
+    @Label("Member Id")
+    public int memberId;
+
+    @Label("Queued")
+    @Description("False when the queue was full or stopped and the view was written on the calling thread")
+    public boolean queued;
+
+    @Label("Pending")
+    @Description("Views waiting on the queue afterwards")
+    public int pending;
+}
@@ -0,0 +1,27 @@
+package com.example.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("elibrary.BookViewFlush")
+@Label("Book View Flush")
+@Category({ "eLibrary", "Book Views" })
+@Description("Writing a batch of queued book views")
+@StackTrace(false)
+public class BookViewFlushEvent extends Event {
+
+    @Label("Views")
+    public int views;
+
+    @Label("Failed")
+    @Description("The batch insert failed and the views were dropped")
+    public boolean failed;
+
+    @Label("Pending")
+    @Description("Views still waiting on the queue")
+    public int pending;
+}
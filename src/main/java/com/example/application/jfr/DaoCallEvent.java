@@ -0,0 +1,29 @@
+package com.example.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("elibrary.DaoCall")
+@Label("DAO Call")
+@Category({ "eLibrary", "Database" })
+@Description("A DAO method, from borrowing the connection to mapping the last row")
+@StackTrace(false)
+public class DaoCallEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Sort")
+    public String sort;
+
+    @Label("Rows")
+    @Description("Rows read or written")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,148 @@
+package com.example.application.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Records the JVM with Java Flight Recorder on demand, one time-boxed recording at a time.
+ * <p>
+ * {@code POST /actuator/flightrecording} starts a recording with the JDK's {@code default} settings, or {@code profile}
+ * for more detail at a higher cost, for {@code elibrary.flight-recording.default-duration} or the given duration up to
+ * {@code elibrary.flight-recording.max-duration}. It stops by itself at the end, or earlier with {@code DELETE}.
+ * {@code GET} then returns the {@code .jfr} file for JDK Mission Control or the {@code jfr} tool, and answers 202 while
+ * the recording is still running. The file is kept until the next recording starts.
+ * </p>
+ * <p>
+ * A recording holds the JVM's system properties and environment variables, secrets included, so like every actuator
+ * endpoint but health it is only open to administrators.
+ * </p>
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+class FlightRecordingEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private static final int STATUS_ACCEPTED = 202;
+
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+
+    private Recording recording;
+    private Path file;
+
+    FlightRecordingEndpoint(@Value("${elibrary.flight-recording.default-duration:60s}") Duration defaultDuration,
+            @Value("${elibrary.flight-recording.max-duration:10m}") Duration maxDuration) {
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+    }
+
+    public record Status(String state, Instant started, Duration duration, long bytes) {
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Status> start(@Nullable Duration duration, @Nullable String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Duration length = duration == null ? defaultDuration : duration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? "default" : settings);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        discard();
+        try {
+            file = Files.createTempFile("elibrary-", ".jfr");
+            recording = new Recording(configuration);
+            recording.setName("elibrary");
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.setDuration(length);
+            recording.start();
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not start a flight recording", e);
+            discard();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+        log.info("Started a {} flight recording of {} to {}", configuration.getName(), length, file);
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Status> stop() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            // Writes the destination file
+            recording.stop();
+        }
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<Resource> recording() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() != RecordingState.STOPPED && recording.getState() != RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(STATUS_ACCEPTED);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    private Status status() {
+        long bytes = recording.getState() == RecordingState.RUNNING ? recording.getSize() : fileSize();
+        return new Status(recording.getState().name(), recording.getStartTime(), recording.getDuration(), bytes);
+    }
+
+    private long fileSize() {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete flight recording {}", file, e);
+            }
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.application.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("elibrary.ViewBuild")
+@Label("View Build")
+@Category({ "eLibrary", "Vaadin" })
+@Description("Navigating to a route: constructing the view, its beforeEnter and attaching it to the UI")
+@StackTrace(false)
+public class ViewBuildEvent extends Event {
+
+    @Label("View")
+    public String view;
+
+    @Label("Location")
+    public String location;
+}
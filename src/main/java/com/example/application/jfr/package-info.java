@@ -0,0 +1,11 @@
+/**
+ * Java Flight Recorder events of the application and an actuator endpoint to record them on a live node.
+ * <p>
+ * The events sit in the {@code eLibrary} category of JDK Mission Control, next to the JVM's own: DAO calls, building a
+ * view on navigation, and book views being queued and written. They are cheap enough to leave in place, since an event
+ * nobody records is never committed. {@link com.example.application.jfr.FlightRecordingEndpoint} starts a time-boxed
+ * recording with the JDK's {@code default} or {@code profile} settings and hands out the {@code .jfr} file when it is
+ * done.
+ * </p>
+ */
+package com.example.application.jfr;
@@ -0,0 +1,12 @@
+package com.example.application.search;
+
+import java.util.List;
+
+/**
+ * Turns text into the terms that are indexed and looked up. Documents and queries must use the same analyzer.
+ */
+@FunctionalInterface
+public interface Analyzer {
+
+    List<String> analyze(String text);
+}
@@ -0,0 +1,213 @@
+package com.example.application.search;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.model.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over the book catalog, answered from memory.
+ * <p>
+ * Title, author, publisher, synopsis and category name of every book are indexed into a {@link SearchIndex}, with title
+ * and author matches weighted higher than the rest, after {@link IndonesianAnalyzer} has dropped stopwords and reduced
+ * words to their stems. The index is built in the background when the application starts, picks up books with a higher
+ * id than any indexed one every {@code elibrary.search.refresh-interval}, and is rebuilt from scratch every
+ * {@code elibrary.search.rebuild-interval} so that edits made directly in the database show up too. Catalog changes
+ * reported through a {@link BookChangedEvent}, such as a generated dataset, and renamed or deleted categories reported
+ * through a {@link CategoryChangedEvent} are applied straight away.
+ * </p>
+ * <p>
+ * Queries only read a volatile reference to the current immutable index and never wait for an update. Until the first
+ * build has finished every search returns no hits.
+ * </p>
+ */
+@Component
+public class BookSearchService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchService.class);
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 1;
+    private static final int PUBLISHER_WEIGHT = 1;
+    private static final int SYNOPSIS_WEIGHT = 1;
+
+    private final BookDao bookDao;
+    private final Analyzer analyzer;
+    private final Duration refreshInterval;
+    private final Duration rebuildInterval;
+    private final Timer queries;
+
+    private volatile SearchIndex index = SearchIndex.EMPTY;
+    private int lastIndexedId;
+    private volatile ScheduledExecutorService indexer;
+
+    BookSearchService(BookDao bookDao, MeterRegistry meterRegistry,
+            @Value("${elibrary.search.refresh-interval:1m}") Duration refreshInterval,
+            @Value("${elibrary.search.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.bookDao = bookDao;
+        this.analyzer = new IndonesianAnalyzer();
+        this.refreshInterval = refreshInterval;
+        this.rebuildInterval = rebuildInterval;
+
+        this.queries = Timer.builder("elibrary.search.query").description("Time spent answering catalog searches")
+                .register(meterRegistry);
+        Gauge.builder("elibrary.search.documents", this, service -> service.index.size())
+                .description("Books in the search index").register(meterRegistry);
+        Gauge.builder("elibrary.search.bytes", this, service -> service.index.bytes()).baseUnit("bytes")
+                .description("Approximate size of the search index arrays").register(meterRegistry);
+    }
+
+    /**
+     * Returns the best matching books for the query, best first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return index.search(analyzer.analyze(query), limit);
+        } finally {
+            queries.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener
+    void onBookChanged(BookChangedEvent event) {
+        if (event.type() != BookChangedEvent.Type.CATALOG) {
+            return;
+        }
+        if (event.isAll()) {
+            ScheduledExecutorService current = indexer;
+            if (current != null) {
+                current.execute(() -> runSafely(this::rebuild, "Rebuilding"));
+            }
+            return;
+        }
+        runSafely(() -> update(event.bookIds()), "Updating");
+    }
+
+    // The category name is indexed, and the books of a deleted category are no longer found at all
+    @EventListener
+    void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.type() == CategoryChangedEvent.Type.ADDED) {
+            return;
+        }
+        runSafely(() -> update(bookDao.getBookIdsByCategory(event.id())), "Updating");
+    }
+
+    // Re-reads the books and replaces them in the index with one new segment; books that are gone are removed
+    synchronized void update(Collection<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Document> upserts = new ArrayList<>();
+        Set<Integer> removed = new HashSet<>(bookIds);
+        for (Book book : bookDao.findBooksByIds(bookIds)) {
+            upserts.add(document(book));
+            removed.remove(book.getId());
+            lastIndexedId = Math.max(lastIndexedId, book.getId());
+        }
+        index = index.update(upserts, removed);
+    }
+
+    // Reads the whole catalog and replaces the index
+    synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<Document> documents = new ArrayList<>();
+        int lastId = read(0, documents);
+        index = SearchIndex.of(documents);
+        lastIndexedId = lastId;
+        log.info("Indexed {} books ({} terms, {} KB) in {} ms", index.size(), index.termCount(), index.bytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Adds the books created since the last build or refresh
+    synchronized void refresh() {
+        List<Document> documents = new ArrayList<>();
+        int lastId = read(lastIndexedId, documents);
+        if (!documents.isEmpty()) {
+            index = index.update(documents, List.of());
+            lastIndexedId = lastId;
+        }
+    }
+
+    // Analyzes every book with an id above afterId into documents and returns the highest id seen
+    private int read(int afterId, List<Document> documents) {
+        int lastId = afterId;
+        List<Book> chunk;
+        do {
+            chunk = bookDao.getBooksAfter(lastId, CHUNK_SIZE);
+            for (Book book : chunk) {
+                documents.add(document(book));
+                lastId = book.getId();
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+        return lastId;
+    }
+
+    Document document(Book book) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addField(frequencies, book.getTitle(), TITLE_WEIGHT)
+                + addField(frequencies, book.getAuthor(), AUTHOR_WEIGHT)
+                + addField(frequencies, book.getCategoryName(), CATEGORY_WEIGHT)
+                + addField(frequencies, book.getPublisher(), PUBLISHER_WEIGHT)
+                + addField(frequencies, book.getSynopsis(), SYNOPSIS_WEIGHT);
+        return new Document(book.getId(), frequencies, length);
+    }
+
+    private int addField(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = analyzer.analyze(text);
+        terms.forEach(term -> frequencies.merge(term, weight, Integer::sum));
+        return terms.size() * weight;
+    }
+
+    private void runSafely(Runnable task, String description) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("{} the search index failed, keeping the current one", description, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        indexer = Executors
+                .newSingleThreadScheduledExecutor(Thread.ofPlatform().name("book-search-indexer").daemon().factory());
+        indexer.scheduleWithFixedDelay(() -> runSafely(this::rebuild, "Rebuilding"), 0, rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        indexer.scheduleWithFixedDelay(() -> runSafely(this::refresh, "Refreshing"), refreshInterval.toMillis(),
+                refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        indexer.shutdownNow();
+        indexer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return indexer != null;
+    }
+}
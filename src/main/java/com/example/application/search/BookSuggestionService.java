@@ -0,0 +1,96 @@
+package com.example.application.search;
+
+import com.example.application.data.dao.BookDao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type suggestions: book titles and authors with a word starting with what has been typed so far, most
+ * viewed first.
+ * <p>
+ * The {@link SuggestionIndex} is built in the background when the application starts and rebuilt every
+ * {@code elibrary.suggestions.rebuild-interval}, which also picks up new view counts. Lookups only read a volatile
+ * reference to the current index; until the first build has finished there are no suggestions.
+ * </p>
+ */
+@Component
+public class BookSuggestionService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSuggestionService.class);
+
+    private final BookDao bookDao;
+    private final Duration rebuildInterval;
+    private final Timer lookups;
+
+    private volatile SuggestionIndex index = SuggestionIndex.EMPTY;
+    private volatile ScheduledExecutorService builder;
+
+    BookSuggestionService(BookDao bookDao, MeterRegistry meterRegistry,
+            @Value("${elibrary.suggestions.rebuild-interval:5m}") Duration rebuildInterval) {
+        this.bookDao = bookDao;
+        this.rebuildInterval = rebuildInterval;
+
+        this.lookups = Timer.builder("elibrary.suggestions.lookup")
+                .description("Time spent looking up search suggestions").register(meterRegistry);
+        Gauge.builder("elibrary.suggestions.bytes", this, service -> service.index.bytes()).baseUnit("bytes")
+                .description("Approximate size of the suggestion index arrays").register(meterRegistry);
+    }
+
+    /**
+     * Returns up to {@code limit} titles and authors matching the prefix, most popular first.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        long start = System.nanoTime();
+        try {
+            return index.suggest(prefix, limit);
+        } finally {
+            lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Reads all titles and authors and replaces the index
+    void rebuild() {
+        long start = System.nanoTime();
+        index = SuggestionIndex.build(bookDao.getBookTitles());
+        log.info("Built {} search suggestions ({} KB) in {} ms", index.size(), index.bytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the search suggestions failed, keeping the current ones", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        builder = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("book-suggestion-builder").daemon().factory());
+        builder.scheduleWithFixedDelay(this::rebuildSafely, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        builder.shutdownNow();
+        builder = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return builder != null;
+    }
+}
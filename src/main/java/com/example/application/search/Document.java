@@ -0,0 +1,10 @@
+package com.example.application.search;
+
+import java.util.Map;
+
+/**
+ * An analyzed book as it goes into the index: how often each term occurs (already multiplied by the weight of the field
+ * it occurs in) and the weighted number of terms.
+ */
+record Document(int bookId, Map<String, Integer> termFrequencies, int length) {
+}
@@ -0,0 +1,52 @@
+package com.example.application.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Analyzer for Indonesian text: folds case and diacritics, splits on everything that is not a letter or digit, drops
+ * stopwords and reduces the remaining words to their stem with {@link IndonesianStemmer}.
+ * <p>
+ * Stopwords occur in nearly every book, so indexing them costs the longest posting lists of the index while they hardly
+ * tell books apart; stemming lets "membaca", "dibaca" and "bacaan" find each other and keeps one posting list for all
+ * of them.
+ * </p>
+ */
+public final class IndonesianAnalyzer implements Analyzer {
+
+    // The most frequent Indonesian function words
+    static final Set<String> STOPWORDS = Set.of("ada", "adalah", "agar", "akan", "aku", "anda", "antara", "apa",
+            "apakah", "atas", "atau", "bagaimana", "bagi", "bahkan", "bahwa", "banyak", "baru", "belum", "berada",
+            "bersama", "bisa", "boleh", "bukan", "dalam", "dan", "dari", "dengan", "di", "dia", "hanya", "harus",
+            "hingga", "ia", "ialah", "ini", "itu", "jadi", "jika", "juga", "kalau", "kami", "kamu", "karena", "ke",
+            "kita", "lagi", "lain", "lalu", "maka", "mana", "masih", "mereka", "namun", "oleh", "pada", "para", "saat",
+            "saja", "sampai", "sangat", "saya", "se", "sebagai", "sebelum", "sedang", "sejak", "semua", "sendiri",
+            "seperti", "sesudah", "setelah", "sudah", "tanpa", "telah", "tentang", "tetapi", "tidak", "untuk", "yaitu",
+            "yakni", "yang");
+
+    private final IndonesianStemmer stemmer = new IndonesianStemmer();
+
+    @Override
+    public List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = TextFolding.fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = folded.substring(start, i);
+                if (!STOPWORDS.contains(word)) {
+                    terms.add(stemmer.stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.application.search;
+
+/**
+ * Dictionary-free Indonesian stemmer after Tala (2003), the rule-based variant of Nazief and Adriani's algorithm.
+ * <p>
+ * Strips, in order, an inflectional particle ({@code -kah -lah -tah -pun}), a possessive pronoun ({@code -ku -mu
+ * -nya}), a first-order prefix ({@code meng- meny- men- mem- me- peng- peny- pen- pem- di- ter- ke-}), and then either
+ * a derivational suffix ({@code -kan -an -i}) followed by a second-order prefix ({@code ber- be- per- pe-}), or the
+ * other way round when there was no first-order prefix. Every step only applies to words of more than two syllables,
+ * which keeps short roots such as "makan" or "baca" intact. Without a dictionary some words are over- or under-stemmed
+ * ("menulis" becomes "ulis"), but documents and queries are stemmed alike, so they still meet.
+ * </p>
+ * <p>
+ * Expects folded, lower-case input.
+ * </p>
+ */
+final class IndonesianStemmer {
+
+    private static final String[] PARTICLES = { "kah", "lah", "tah", "pun" };
+    private static final String[] POSSESSIVES = { "nya", "ku", "mu" };
+    private static final String[] SUFFIXES = { "kan", "an", "i" };
+
+    String stem(String word) {
+        if (syllables(word) <= 2 || !isAlphabetic(word)) {
+            return word;
+        }
+        String stem = removeSuffix(word, PARTICLES);
+        stem = removeSuffix(stem, POSSESSIVES);
+
+        String withoutPrefix = removeFirstOrderPrefix(stem);
+        if (!withoutPrefix.equals(stem)) {
+            String withoutSuffix = removeSuffix(withoutPrefix, SUFFIXES);
+            return withoutSuffix.equals(withoutPrefix) ? withoutPrefix : removeSecondOrderPrefix(withoutSuffix);
+        }
+        String withoutSecondPrefix = removeSecondOrderPrefix(stem);
+        return removeSuffix(withoutSecondPrefix, SUFFIXES);
+    }
+
+    private static String removeSuffix(String word, String[] suffixes) {
+        if (syllables(word) <= 2) {
+            return word;
+        }
+        for (String suffix : suffixes) {
+            if (word.endsWith(suffix) && word.length() > suffix.length() + 2) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    private static String removeFirstOrderPrefix(String word) {
+        if (syllables(word) <= 2) {
+            return word;
+        }
+        if (word.startsWith("meng") || word.startsWith("peng")) {
+            return word.substring(4);
+        }
+        // The nasal replaced the root's first consonant: menyapu from sapu, memukul from pukul
+        if ((word.startsWith("meny") || word.startsWith("peny")) && isVowelAt(word, 4)) {
+            return "s" + word.substring(4);
+        }
+        if ((word.startsWith("mem") || word.startsWith("pem")) && isVowelAt(word, 3)) {
+            return "p" + word.substring(3);
+        }
+        if (word.startsWith("men") || word.startsWith("mem") || word.startsWith("pen") || word.startsWith("pem")
+                || word.startsWith("ter")) {
+            return word.substring(3);
+        }
+        if (word.startsWith("me") || word.startsWith("di") || word.startsWith("ke")) {
+            return word.substring(2);
+        }
+        return word;
+    }
+
+    private static String removeSecondOrderPrefix(String word) {
+        if (syllables(word) <= 2) {
+            return word;
+        }
+        // "bel" and "pel" only before ajar: belajar, pelajaran
+        if (word.startsWith("belajar") || word.startsWith("pelajar")) {
+            return word.substring(3);
+        }
+        if (word.startsWith("ber") || word.startsWith("per")) {
+            return word.substring(3);
+        }
+        if (word.startsWith("be") || word.startsWith("pe")) {
+            return word.substring(2);
+        }
+        return word;
+    }
+
+    // Indonesian syllables each have exactly one vowel, and diphthongs are rare enough to ignore
+    private static int syllables(String word) {
+        int count = 0;
+        for (int i = 0; i < word.length(); i++) {
+            if (isVowelAt(word, i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isVowelAt(String word, int i) {
+        if (i >= word.length()) {
+            return false;
+        }
+        char c = word.charAt(i);
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    private static boolean isAlphabetic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < 'a' || word.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.application.search;
+
+/**
+ * A matching book and its BM25 score; higher is better.
+ */
+public record SearchHit(int bookId, double score) {
+}
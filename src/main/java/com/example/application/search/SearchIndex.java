@@ -0,0 +1,354 @@
+package com.example.application.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, BM25-ranked inverted index made of {@link Segment}s.
+ * <p>
+ * Changes never modify an index: {@link #update(Collection, Collection)} returns a new one that shares the untouched
+ * segments, marks replaced and removed books as deleted and puts the new versions in a new, small segment. Once there
+ * are more than {@link #MAX_SEGMENTS} segments they are merged into one. Readers therefore never lock and always see a
+ * consistent index.
+ * </p>
+ * <p>
+ * Document frequencies include deleted documents until their segment is merged, as in Lucene; the difference only
+ * slightly shifts scores between merges.
+ * </p>
+ */
+final class SearchIndex {
+
+    static final SearchIndex EMPTY = new SearchIndex(List.of(), List.of());
+
+    static final int MAX_SEGMENTS = 8;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final List<Segment> segments;
+    private final List<BitSet> deleted;
+    private final int documentCount;
+    private final int liveCount;
+    private final double averageLength;
+    // Per segment and document: the BM25 length normalization k1 * (1 - b + b * length / averageLength)
+    private final float[][] norms;
+
+    private SearchIndex(List<Segment> segments, List<BitSet> deleted) {
+        this.segments = List.copyOf(segments);
+        this.deleted = List.copyOf(deleted);
+        int documents = 0;
+        int live = 0;
+        long liveLength = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            BitSet gone = deleted.get(s);
+            documents += segment.size();
+            live += segment.size() - gone.cardinality();
+            liveLength += segment.totalLength();
+            for (int doc = gone.nextSetBit(0); doc >= 0; doc = gone.nextSetBit(doc + 1)) {
+                liveLength -= segment.length(doc);
+            }
+        }
+        this.documentCount = documents;
+        this.liveCount = live;
+        this.averageLength = live == 0 ? 0 : (double) liveLength / live;
+        this.norms = new float[segments.size()][];
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            norms[s] = new float[segment.size()];
+            for (int doc = 0; doc < segment.size(); doc++) {
+                norms[s][doc] = (float) (K1 * (1 - B + B * segment.length(doc) / averageLength));
+            }
+        }
+    }
+
+    static SearchIndex of(Collection<Document> documents) {
+        return documents.isEmpty() ? EMPTY : new SearchIndex(List.of(Segment.build(documents)), List.of(new BitSet()));
+    }
+
+    /**
+     * Returns an index in which the given documents replace any earlier version of the same books and the removed books
+     * are gone.
+     */
+    SearchIndex update(Collection<Document> upserts, Collection<Integer> removedBookIds) {
+        Set<Integer> replaced = new HashSet<>(removedBookIds);
+        upserts.forEach(document -> replaced.add(document.bookId()));
+
+        List<Segment> newSegments = new ArrayList<>(segments);
+        List<BitSet> newDeleted = new ArrayList<>(deleted);
+        for (int s = 0; s < newSegments.size(); s++) {
+            BitSet copy = null;
+            for (int bookId : replaced) {
+                int doc = newSegments.get(s).find(bookId);
+                if (doc >= 0 && !newDeleted.get(s).get(doc)) {
+                    if (copy == null) {
+                        copy = (BitSet) newDeleted.get(s).clone();
+                    }
+                    copy.set(doc);
+                }
+            }
+            if (copy != null) {
+                newDeleted.set(s, copy);
+            }
+        }
+        if (!upserts.isEmpty()) {
+            newSegments.add(Segment.build(upserts));
+            newDeleted.add(new BitSet());
+        }
+        if (newSegments.size() > MAX_SEGMENTS) {
+            Segment merged = Segment.merge(newSegments, newDeleted);
+            return new SearchIndex(List.of(merged), List.of(new BitSet()));
+        }
+        return new SearchIndex(newSegments, newDeleted);
+    }
+
+    /**
+     * Ranks the live documents containing any of the terms with BM25 and returns the best {@code limit}, best first.
+     * Ties are broken by ascending book id.
+     */
+    List<SearchHit> search(List<String> terms, int limit) {
+        if (terms.isEmpty() || liveCount == 0 || limit <= 0) {
+            return List.of();
+        }
+        Map<String, Integer> queryTerms = new LinkedHashMap<>();
+        terms.forEach(term -> queryTerms.merge(term, 1, Integer::sum));
+
+        // Query term weights: idf over the whole index times the number of times the term was typed
+        List<String> known = new ArrayList<>(queryTerms.size());
+        List<Double> weights = new ArrayList<>(queryTerms.size());
+        for (Map.Entry<String, Integer> entry : queryTerms.entrySet()) {
+            int documentFrequency = 0;
+            for (Segment segment : segments) {
+                int index = segment.termIndex(entry.getKey());
+                if (index >= 0) {
+                    documentFrequency += segment.documentFrequency(index);
+                }
+            }
+            if (documentFrequency > 0) {
+                double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                known.add(entry.getKey());
+                weights.add(idf * entry.getValue());
+            }
+        }
+        if (known.isEmpty()) {
+            return List.of();
+        }
+
+        TopHits top = new TopHits(limit);
+        for (int s = 0; s < segments.size(); s++) {
+            score(segments.get(s), deleted.get(s), norms[s], known, weights, top);
+        }
+        return top.toList();
+    }
+
+    /**
+     * Document-at-a-time MaxScore over one segment.
+     * <p>
+     * A term can add at most its weight to a document's score, because {@code tf / (tf + norm) < 1}. Terms are ordered
+     * by that bound; once the best {@code limit} hits are known, the low-weight terms whose bounds together cannot lift
+     * an unseen document past the current worst hit become "non-essential". Candidates then only come from the
+     * remaining, rarer terms, and the common terms' posting lists are merely probed with block skipping for those
+     * candidates instead of being decoded in full.
+     * </p>
+     */
+    private void score(Segment segment, BitSet gone, float[] norms, List<String> terms, List<Double> weights,
+            TopHits top) {
+        List<Segment.PostingsCursor> found = new ArrayList<>(terms.size());
+        List<Double> foundWeights = new ArrayList<>(terms.size());
+        for (int t = 0; t < terms.size(); t++) {
+            int termIndex = segment.termIndex(terms.get(t));
+            if (termIndex >= 0) {
+                found.add(segment.postings(termIndex));
+                foundWeights.add(weights.get(t) * (K1 + 1));
+            }
+        }
+        int n = found.size();
+        if (n == 0) {
+            return;
+        }
+
+        // Ascending by upper bound, with the running sum of the bounds up to each term
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(foundWeights.get(a), foundWeights.get(b)));
+        Segment.PostingsCursor[] cursors = new Segment.PostingsCursor[n];
+        float[] bounds = new float[n];
+        float[] boundSums = new float[n];
+        for (int i = 0; i < n; i++) {
+            cursors[i] = found.get(order[i]);
+            cursors[i].next();
+            bounds[i] = foundWeights.get(order[i]).floatValue();
+            boundSums[i] = bounds[i] + (i > 0 ? boundSums[i - 1] : 0);
+        }
+
+        int firstEssential = essential(boundSums, top, 0);
+        while (firstEssential < n) {
+            int doc = Segment.PostingsCursor.EXHAUSTED;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, cursors[i].doc());
+            }
+            if (doc == Segment.PostingsCursor.EXHAUSTED) {
+                return;
+            }
+
+            float score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                if (cursors[i].doc() == doc) {
+                    score += contribution(bounds[i], cursors[i].frequency(), norms[doc]);
+                    cursors[i].next();
+                }
+            }
+            if (gone.get(doc)) {
+                continue;
+            }
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (top.isFull() && score + boundSums[i] < top.worstScore()) {
+                    break;
+                }
+                if (cursors[i].advance(doc) && cursors[i].doc() == doc) {
+                    score += contribution(bounds[i], cursors[i].frequency(), norms[doc]);
+                }
+            }
+            if (top.offer(score, segment.bookId(doc))) {
+                firstEssential = essential(boundSums, top, firstEssential);
+            }
+        }
+    }
+
+    // The first term that can still lift a document that only matches it and the terms after it into the top hits
+    private static int essential(float[] boundSums, TopHits top, int from) {
+        if (!top.isFull()) {
+            return from;
+        }
+        int first = from;
+        while (first < boundSums.length && boundSums[first] < top.worstScore()) {
+            first++;
+        }
+        return first;
+    }
+
+    private static float contribution(float weight, int frequency, float norm) {
+        return weight * frequency / (frequency + norm);
+    }
+
+    int size() {
+        return liveCount;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    int termCount() {
+        return segments.stream().mapToInt(Segment::termCount).sum();
+    }
+
+    long bytes() {
+        return segments.stream().mapToLong(Segment::bytes).sum();
+    }
+
+    /**
+     * Bounded min-heap of the best hits seen so far, on primitive arrays.
+     */
+    private static final class TopHits {
+
+        private final double[] scores;
+        private final int[] bookIds;
+        private int size;
+
+        TopHits(int limit) {
+            scores = new double[limit];
+            bookIds = new int[limit];
+        }
+
+        // Adds the hit if it ranks among the best so far; returns whether it was added
+        boolean offer(double score, int bookId) {
+            if (size < scores.length) {
+                scores[size] = score;
+                bookIds[size] = bookId;
+                siftUp(size++);
+                return true;
+            }
+            if (worse(0, score, bookId)) {
+                scores[0] = score;
+                bookIds[0] = bookId;
+                siftDown(0);
+                return true;
+            }
+            return false;
+        }
+
+        boolean isFull() {
+            return size == scores.length;
+        }
+
+        double worstScore() {
+            return scores[0];
+        }
+
+        List<SearchHit> toList() {
+            SearchHit[] hits = new SearchHit[size];
+            // Popping the minimum fills the array from the back, best hit first
+            while (size > 0) {
+                hits[size - 1] = new SearchHit(bookIds[0], scores[0]);
+                size--;
+                scores[0] = scores[size];
+                bookIds[0] = bookIds[size];
+                siftDown(0);
+            }
+            return List.of(hits);
+        }
+
+        // Whether the entry at i ranks below the given hit
+        private boolean worse(int i, double score, int bookId) {
+            return scores[i] < score || (scores[i] == score && bookIds[i] > bookId);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!worse(i, scores[parent], bookIds[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && worse(left, scores[smallest], bookIds[smallest])) {
+                    smallest = left;
+                }
+                if (right < size && worse(right, scores[smallest], bookIds[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+            int bookId = bookIds[i];
+            bookIds[i] = bookIds[j];
+            bookIds[j] = bookId;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.application.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * An immutable block of the inverted index.
+ * <p>
+ * Documents are numbered 0..n-1 in ascending book id order. The vocabulary is a sorted {@code String[]} searched with
+ * binary search, and the postings of all terms are packed into a single {@code byte[]}: for every document containing
+ * the term, the gap to the previous document number followed by the term frequency, both as unsigned LEB128 varints.
+ * Gaps in a dense posting list fit in one byte, so a posting usually costs two bytes instead of the eight of an
+ * {@code int} pair, and there is no per-term or per-posting object.
+ * </p>
+ * <p>
+ * Every {@value #BLOCK_SIZE} postings of a term start a block whose byte offset and last document are kept in two
+ * {@code int[]} skip tables, so {@link PostingsCursor#advance(int)} can jump over whole blocks without decoding them.
+ * </p>
+ */
+final class Segment {
+
+    static final int BLOCK_SIZE = 128;
+
+    private final int[] bookIds;
+    private final int[] lengths;
+    private final long totalLength;
+    private final String[] terms;
+    private final int[] documentFrequencies;
+    private final int[] offsets;
+    private final byte[] postings;
+    private final int[] blockStarts;
+    private final int[] blockOffsets;
+    private final int[] blockLastDocs;
+
+    private Segment(int[] bookIds, int[] lengths, String[] terms, Encoder encoder) {
+        this.bookIds = bookIds;
+        this.lengths = lengths;
+        this.totalLength = Arrays.stream(lengths).asLongStream().sum();
+        this.terms = terms;
+        this.documentFrequencies = encoder.documentFrequencies.toArray();
+        this.offsets = encoder.offsets.toArray();
+        this.postings = encoder.postings.toArray();
+        this.blockStarts = encoder.blockStarts.toArray();
+        this.blockOffsets = encoder.blockOffsets.toArray();
+        this.blockLastDocs = encoder.blockLastDocs.toArray();
+    }
+
+    static Segment build(Collection<Document> documents) {
+        Document[] sorted = documents.toArray(Document[]::new);
+        Arrays.sort(sorted, Comparator.comparingInt(Document::bookId));
+
+        int[] bookIds = new int[sorted.length];
+        int[] lengths = new int[sorted.length];
+        Map<String, IntList> postingLists = new HashMap<>();
+        for (int doc = 0; doc < sorted.length; doc++) {
+            bookIds[doc] = sorted[doc].bookId();
+            lengths[doc] = sorted[doc].length();
+            for (Map.Entry<String, Integer> entry : sorted[doc].termFrequencies().entrySet()) {
+                IntList pairs = postingLists.computeIfAbsent(entry.getKey(), term -> new IntList());
+                pairs.add(doc);
+                pairs.add(entry.getValue());
+            }
+        }
+
+        String[] terms = postingLists.keySet().toArray(String[]::new);
+        Arrays.sort(terms);
+        Encoder encoder = new Encoder(postingLists.size() * 8);
+        for (String term : terms) {
+            IntList pairs = postingLists.get(term);
+            encoder.startTerm();
+            for (int i = 0; i < pairs.size(); i += 2) {
+                encoder.add(pairs.get(i), pairs.get(i + 1));
+            }
+        }
+        encoder.finish();
+        return new Segment(bookIds, lengths, terms, encoder);
+    }
+
+    /**
+     * Combines segments into one, leaving out the deleted documents. Postings are re-numbered and re-encoded without
+     * going back to the original documents.
+     */
+    static Segment merge(List<Segment> segments, List<BitSet> deleted) {
+        // Live documents of all segments in book id order; a book is live in at most one segment
+        List<long[]> live = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            for (int doc = 0; doc < segment.size(); doc++) {
+                if (!deleted.get(s).get(doc)) {
+                    live.add(new long[] { segment.bookIds[doc], s, doc });
+                }
+            }
+        }
+        live.sort(Comparator.comparingLong(entry -> entry[0]));
+
+        int[] bookIds = new int[live.size()];
+        int[] lengths = new int[live.size()];
+        int[][] renumbered = new int[segments.size()][];
+        for (int s = 0; s < segments.size(); s++) {
+            renumbered[s] = new int[segments.get(s).size()];
+            Arrays.fill(renumbered[s], -1);
+        }
+        for (int doc = 0; doc < live.size(); doc++) {
+            long[] entry = live.get(doc);
+            int s = (int) entry[1];
+            int old = (int) entry[2];
+            bookIds[doc] = (int) entry[0];
+            lengths[doc] = segments.get(s).lengths[old];
+            renumbered[s][old] = doc;
+        }
+
+        TreeSet<String> vocabulary = new TreeSet<>();
+        for (Segment segment : segments) {
+            vocabulary.addAll(Arrays.asList(segment.terms));
+        }
+
+        List<String> terms = new ArrayList<>(vocabulary.size());
+        Encoder encoder = new Encoder(segments.stream().mapToInt(segment -> segment.postings.length).sum());
+        long[] merged = new long[64];
+        for (String term : vocabulary) {
+            int count = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                Segment segment = segments.get(s);
+                int index = segment.termIndex(term);
+                if (index < 0) {
+                    continue;
+                }
+                PostingsCursor cursor = segment.postings(index);
+                while (cursor.next()) {
+                    int doc = renumbered[s][cursor.doc()];
+                    if (doc >= 0) {
+                        if (count == merged.length) {
+                            merged = Arrays.copyOf(merged, count * 2);
+                        }
+                        merged[count++] = (long) doc << 32 | cursor.frequency();
+                    }
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            // Document number in the high half, so sorting the packed postings sorts by document
+            Arrays.sort(merged, 0, count);
+            terms.add(term);
+            encoder.startTerm();
+            for (int i = 0; i < count; i++) {
+                encoder.add((int) (merged[i] >>> 32), (int) merged[i]);
+            }
+        }
+        encoder.finish();
+        return new Segment(bookIds, lengths, terms.toArray(String[]::new), encoder);
+    }
+
+    int size() {
+        return bookIds.length;
+    }
+
+    int bookId(int doc) {
+        return bookIds[doc];
+    }
+
+    int length(int doc) {
+        return lengths[doc];
+    }
+
+    long totalLength() {
+        return totalLength;
+    }
+
+    // The document number of the book, or -1 if it is not in this segment
+    int find(int bookId) {
+        int doc = Arrays.binarySearch(bookIds, bookId);
+        return doc >= 0 ? doc : -1;
+    }
+
+    // The position of the term in the vocabulary, or -1 if no document contains it
+    int termIndex(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? index : -1;
+    }
+
+    int documentFrequency(int termIndex) {
+        return documentFrequencies[termIndex];
+    }
+
+    PostingsCursor postings(int termIndex) {
+        return new PostingsCursor(this, termIndex);
+    }
+
+    int termCount() {
+        return terms.length;
+    }
+
+    // Approximate heap footprint of the arrays, without the term strings themselves
+    long bytes() {
+        return postings.length + 4L * (bookIds.length + lengths.length + documentFrequencies.length + offsets.length
+                + blockStarts.length + blockOffsets.length + blockLastDocs.length + terms.length);
+    }
+
+    /**
+     * Walks the posting list of one term in document order. Starts before the first posting.
+     */
+    static final class PostingsCursor {
+
+        static final int EXHAUSTED = Integer.MAX_VALUE;
+
+        private final byte[] bytes;
+        private final int[] blockOffsets;
+        private final int[] blockLastDocs;
+        private final int firstBlock;
+        private final int lastBlock;
+        private final int end;
+        private int block;
+        private int position;
+        private int doc;
+        private int frequency;
+
+        private PostingsCursor(Segment segment, int termIndex) {
+            this.bytes = segment.postings;
+            this.blockOffsets = segment.blockOffsets;
+            this.blockLastDocs = segment.blockLastDocs;
+            this.firstBlock = segment.blockStarts[termIndex];
+            this.lastBlock = segment.blockStarts[termIndex + 1] - 1;
+            this.end = segment.offsets[termIndex + 1];
+            this.block = firstBlock;
+            this.position = segment.offsets[termIndex];
+        }
+
+        /**
+         * Moves to the next posting; returns false, and sets the document to {@link #EXHAUSTED}, after the last one.
+         */
+        boolean next() {
+            if (position >= end) {
+                doc = EXHAUSTED;
+                return false;
+            }
+            if (block < lastBlock && position >= blockOffsets[block + 1]) {
+                block++;
+            }
+            doc += readVarint();
+            frequency = readVarint();
+            return true;
+        }
+
+        /**
+         * Moves to the first posting at or after the target document, skipping blocks that end before it. The cursor
+         * must already be on a posting.
+         */
+        boolean advance(int target) {
+            if (doc >= target) {
+                return doc != EXHAUSTED;
+            }
+            if (target > blockLastDocs[block]) {
+                int next = block + 1;
+                while (next <= lastBlock && blockLastDocs[next] < target) {
+                    next++;
+                }
+                if (next > lastBlock) {
+                    position = end;
+                    doc = EXHAUSTED;
+                    return false;
+                }
+                block = next;
+                position = blockOffsets[next];
+                doc = blockLastDocs[next - 1];
+            }
+            while (next()) {
+                if (doc >= target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Writes posting lists term by term in vocabulary order, together with their skip tables.
+     */
+    private static final class Encoder {
+
+        private final ByteList postings;
+        private final IntList offsets = new IntList();
+        private final IntList documentFrequencies = new IntList();
+        private final IntList blockStarts = new IntList();
+        private final IntList blockOffsets = new IntList();
+        private final IntList blockLastDocs = new IntList();
+        private int previous;
+        private int count;
+
+        Encoder(int capacity) {
+            postings = new ByteList(capacity);
+        }
+
+        void startTerm() {
+            if (offsets.size() > 0) {
+                documentFrequencies.add(count);
+            }
+            offsets.add(postings.size());
+            blockStarts.add(blockOffsets.size());
+            previous = 0;
+            count = 0;
+        }
+
+        void add(int doc, int frequency) {
+            if (count % BLOCK_SIZE == 0) {
+                blockOffsets.add(postings.size());
+                blockLastDocs.add(doc);
+            } else {
+                blockLastDocs.set(blockLastDocs.size() - 1, doc);
+            }
+            postings.writeVarint(doc - previous);
+            postings.writeVarint(frequency);
+            previous = doc;
+            count++;
+        }
+
+        void finish() {
+            if (offsets.size() > 0) {
+                documentFrequencies.add(count);
+            }
+            offsets.add(postings.size());
+            blockStarts.add(blockOffsets.size());
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class ByteList {
+
+        private byte[] bytes;
+        private int size;
+
+        ByteList(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeVarint(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.application.search;
+
+/**
+ * A search-as-you-type suggestion: either a book title, which leads to that book, or an author, which leads to a search
+ * for the author's name.
+ *
+ * @param label
+ *            the title or author name as it is displayed
+ * @param type
+ *            what the label is
+ * @param bookId
+ *            the book of a title suggestion, 0 for an author
+ */
+public record Suggestion(String label, Type type, int bookId) {
+
+    public enum Type {
+        TITLE, AUTHOR
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.application.search;
+
+import com.example.application.data.model.BookTitle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable prefix lookup over book titles and authors, ranked by popularity.
+ * <p>
+ * Every word start of every case- and diacritic-folded label is a key, so "Laskar Pelangi" is found by "las", by "pel"
+ * and by "laskar pe". Keys are not objects: a key is an offset into one {@code char[]} holding all folded labels back
+ * to back, and the keys are sorted by the text from that offset to the end of the label. All keys starting with a
+ * prefix then form one contiguous range, found with two binary searches; this is the range a trie would reach, without
+ * its nodes.
+ * </p>
+ * <p>
+ * A segment tree over the keys holds, for every node, the key whose entry is most popular. The {@code k} most popular
+ * entries of a range are taken from it best-first in O(k log n), however many keys the range spans, so a one-letter
+ * prefix costs about the same as a full title.
+ * </p>
+ */
+final class SuggestionIndex {
+
+    static final SuggestionIndex EMPTY = build(List.of());
+
+    private final Suggestion[] suggestions;
+    private final long[] popularity;
+    private final int[] entryEnds;
+    private final char[] text;
+    private final int[] keyStarts;
+    private final int[] keyEntries;
+    private final int[] tree;
+    private final int leaves;
+
+    private SuggestionIndex(List<Suggestion> suggestions, List<Long> popularity) {
+        this.suggestions = suggestions.toArray(Suggestion[]::new);
+        this.popularity = popularity.stream().mapToLong(Long::longValue).toArray();
+        this.entryEnds = new int[this.suggestions.length];
+
+        StringBuilder folded = new StringBuilder();
+        List<int[]> keys = new ArrayList<>();
+        for (int entry = 0; entry < this.suggestions.length; entry++) {
+            int start = folded.length();
+            folded.append(fold(this.suggestions[entry].label()));
+            for (int i = start; i < folded.length(); i++) {
+                if (Character.isLetterOrDigit(folded.charAt(i))
+                        && (i == start || !Character.isLetterOrDigit(folded.charAt(i - 1)))) {
+                    keys.add(new int[] { i, entry });
+                }
+            }
+            entryEnds[entry] = folded.length();
+        }
+        this.text = folded.toString().toCharArray();
+
+        keys.sort((a, b) -> Arrays.compare(text, a[0], entryEnds[a[1]], text, b[0], entryEnds[b[1]]));
+        this.keyStarts = keys.stream().mapToInt(key -> key[0]).toArray();
+        this.keyEntries = keys.stream().mapToInt(key -> key[1]).toArray();
+
+        this.leaves = Integer.highestOneBit(Math.max(1, keyStarts.length - 1)) << 1;
+        this.tree = new int[2 * leaves];
+        Arrays.fill(tree, -1);
+        for (int key = 0; key < keyStarts.length; key++) {
+            tree[leaves + key] = key;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Builds the index with one title suggestion per book and one author suggestion per distinct author (ignoring
+     * case). A title is as popular as its book's view count, an author as the sum over their books.
+     */
+    static SuggestionIndex build(List<BookTitle> books) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        List<Long> popularity = new ArrayList<>();
+        Map<String, Integer> authors = new HashMap<>();
+        for (BookTitle book : books) {
+            if (book.title() != null && !book.title().isBlank()) {
+                suggestions.add(new Suggestion(book.title(), Suggestion.Type.TITLE, book.id()));
+                popularity.add((long) book.viewCount());
+            }
+            if (book.author() != null && !book.author().isBlank()) {
+                Integer entry = authors.get(fold(book.author()));
+                if (entry == null) {
+                    authors.put(fold(book.author()), suggestions.size());
+                    suggestions.add(new Suggestion(book.author(), Suggestion.Type.AUTHOR, 0));
+                    popularity.add((long) book.viewCount());
+                } else {
+                    popularity.set(entry, popularity.get(entry) + book.viewCount());
+                }
+            }
+        }
+        return new SuggestionIndex(suggestions, popularity);
+    }
+
+    /**
+     * Returns up to {@code limit} titles and authors with a word starting with the prefix, most popular first.
+     */
+    List<Suggestion> suggest(String prefix, int limit) {
+        String query = prefix == null ? "" : fold(prefix.strip());
+        if (query.isEmpty() || keyStarts.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int from = lowerBound(query, false);
+        int to = lowerBound(query, true) - 1;
+        if (from > to) {
+            return List.of();
+        }
+
+        // Best-first over sub-ranges: each holds its most popular key, taking it splits the range around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[] { from, to, best(from, to) });
+        List<Suggestion> result = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int key = range[2];
+            if (seen.add(keyEntries[key])) {
+                result.add(suggestions[keyEntries[key]]);
+            }
+            if (range[0] < key) {
+                ranges.add(new int[] { range[0], key - 1, best(range[0], key - 1) });
+            }
+            if (key < range[1]) {
+                ranges.add(new int[] { key + 1, range[1], best(key + 1, range[1]) });
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return suggestions.length;
+    }
+
+    long bytes() {
+        return 2L * text.length + 8L * popularity.length
+                + 4L * (entryEnds.length + keyStarts.length + keyEntries.length + tree.length);
+    }
+
+    // The first key that is not below the prefix, or with past set, the first key above every key starting with it
+    private int lowerBound(String prefix, boolean past) {
+        int low = 0;
+        int high = keyStarts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(middle, prefix);
+            if (comparison < 0 || (past && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Compares a key with a prefix, where 0 means that the key starts with the prefix
+    private int compare(int key, String prefix) {
+        int start = keyStarts[key];
+        int end = entryEnds[keyEntries[key]];
+        for (int i = 0; i < prefix.length(); i++) {
+            if (start + i >= end) {
+                return -1;
+            }
+            int difference = text[start + i] - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    // The most popular key in the inclusive range of keys
+    private int best(int from, int to) {
+        int result = -1;
+        for (int low = from + leaves, high = to + leaves + 1; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = better(result, tree[low++]);
+            }
+            if ((high & 1) == 1) {
+                result = better(result, tree[--high]);
+            }
+        }
+        return result;
+    }
+
+    // The more popular of two keys (-1 for none); ties go to the alphabetically first
+    private int better(int a, int b) {
+        if (a < 0 || b < 0) {
+            return a < 0 ? b : a;
+        }
+        long difference = popularity[keyEntries[a]] - popularity[keyEntries[b]];
+        if (difference != 0) {
+            return difference > 0 ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static String fold(String text) {
+        return TextFolding.fold(text);
+    }
+}
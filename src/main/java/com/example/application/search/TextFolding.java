@@ -0,0 +1,28 @@
+package com.example.application.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Case and diacritic folding shared by the analyzers and the suggestion index, so that "Émile", "EMILE" and "emile" are
+ * the same word everywhere.
+ */
+final class TextFolding {
+
+    private TextFolding() {
+    }
+
+    /**
+     * Lower-cases the text and strips accents and other combining marks.
+     */
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            // Pure ASCII, the common case, has nothing to strip
+            if (lower.charAt(i) > 0x7F) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * In-process full-text search over the book catalog.
+ * <p>
+ * {@link com.example.application.search.BookSearchService} keeps an in-memory inverted index of every book's title,
+ * author, publisher, synopsis and category name, ranks matches with BM25 and answers queries without touching the
+ * database. The views live in {@code user.search}.
+ * </p>
+ */
+package com.example.application.search;
@@ -0,0 +1,48 @@
+package com.example.application.security;
+
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Security configuration for the actuator endpoints under {@code /actuator}.
+ * <p>
+ * Besides metrics, the endpoints expose what no regular user may see: the flight recordings hold the environment of the
+ * JVM, database password included, and the slow query log holds raw SQL with its parameters. This filter chain
+ * therefore comes before the one of the active security configuration, dev or Control Center, and lets only users with
+ * the {@link AppRoles#ADMIN} role in. The health endpoint stays open for load balancers and liveness probes.
+ * </p>
+ * <p>
+ * Administrators authenticate with HTTP Basic on every request. The session of the UI is neither used nor created, so a
+ * page on another site cannot make a logged-in administrator's browser call an endpoint, and the chain needs no CSRF
+ * protection, which scripts and monitoring could not satisfy anyway. For example: <!-- spotless:off -->
+ * <pre>
+ * {@code
+ * curl -u admin -X POST -H 'Content-Type: application/json' -d '{"duration":"2m"}' .../actuator/flightrecording
+ * }
+ * </pre>
+ * <!-- spotless:on -->
+ * </p>
+ */
+@Configuration
+class ActuatorSecurityConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http.securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(requests -> requests.requestMatchers(EndpointRequest.to(HealthEndpoint.class))
+                        .permitAll().anyRequest().hasRole(AppRoles.ADMIN))
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(AbstractHttpConfigurer::disable).build();
+    }
+}
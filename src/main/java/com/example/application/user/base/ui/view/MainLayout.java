@@ -1,8 +1,11 @@
 package com.example.application.user.base.ui.view;
 
-import com.example.application.data.dao.CategoryDao;
+import com.example.application.data.cache.CategoryRegistry;
+import com.example.application.search.BookSuggestionService;
+import com.example.application.search.Suggestion;
 import com.example.application.security.CurrentUser;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.Text;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.applayout.AppLayout;
@@ -18,30 +21,44 @@ import com.vaadin.flow.component.menubar.MenuBarVariant;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.Scroller;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.popover.Popover;
+import com.vaadin.flow.component.popover.PopoverPosition;
 import com.vaadin.flow.component.sidenav.SideNav;
 import com.vaadin.flow.component.sidenav.SideNavItem;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.Layout;
+import com.vaadin.flow.router.QueryParameters;
 import com.vaadin.flow.server.menu.MenuConfiguration;
 import com.vaadin.flow.server.menu.MenuEntry;
 import com.vaadin.flow.spring.security.AuthenticationContext;
 import jakarta.annotation.security.PermitAll;
 
+import java.util.List;
+
 import static com.vaadin.flow.theme.lumo.LumoUtility.*;
 
 @Layout
 @PermitAll // When security is enabled, allow all authenticated users
 public final class MainLayout extends AppLayout {
 
+    private static final int MAX_SUGGESTIONS = 8;
+    // Suggestions are looked up once typing pauses this long, not on every keystroke
+    private static final int SUGGESTION_DELAY_MS = 200;
+
     private final CurrentUser currentUser;
     private final AuthenticationContext authenticationContext;
-    private CategoryDao categoryDao;
+    private final CategoryRegistry categoryRegistry;
+    private final BookSuggestionService bookSuggestionService;
 
-    MainLayout(CurrentUser currentUser, AuthenticationContext authenticationContext) {
+    MainLayout(CurrentUser currentUser, AuthenticationContext authenticationContext, CategoryRegistry categoryRegistry,
+            BookSuggestionService bookSuggestionService) {
         this.currentUser = currentUser;
         this.authenticationContext = authenticationContext;
+        this.categoryRegistry = categoryRegistry;
+        this.bookSuggestionService = bookSuggestionService;
         setPrimarySection(Section.DRAWER);
-        this.categoryDao = new CategoryDao();
 
         addToNavbar(createTopNavbar());
     }
@@ -55,52 +72,91 @@ public final class MainLayout extends AppLayout {
         search.setPlaceholder("Search");
         search.setWidth("300px");
         search.setPrefixComponent(new Icon(VaadinIcon.SEARCH));
+        search.addKeyDownListener(Key.ENTER, e -> {
+            if (!search.getValue().isBlank()) {
+                UI.getCurrent().navigate("search", QueryParameters.of("q", search.getValue().trim()));
+            }
+        });
+        createSuggestions(search);
 
         // Menu item
         Anchor home = new Anchor("#", "Home");
         home.setRouterIgnore(false);
-        home.getStyle()
-                .set("padding", "2rem 1rem")
-                .set("text-decoration", "none");
+        home.getStyle().set("padding", "2rem 1rem").set("text-decoration", "none");
 
         // Kategori dengan ikon dropdown
         MenuBar kategoriMenu = new MenuBar();
         kategoriMenu.addThemeVariants(MenuBarVariant.LUMO_TERTIARY_INLINE);
         MenuItem kategori = kategoriMenu.addItem("Kategori ▼");
 
-        categoryDao.getAllCategories().forEach(category -> {
-            kategori.getSubMenu().addItem(category.getName(), e ->
-                    UI.getCurrent().navigate("category/" + category.getName())
-            );
+        categoryRegistry.getAll().forEach(category -> {
+            kategori.getSubMenu().addItem(category.getName() + " (" + category.getBookCount() + ")",
+                    e -> UI.getCurrent().navigate("category/" + category.getName()));
         });
 
         Component akun = createUserMenu();
 
-        HorizontalLayout menuSection = new HorizontalLayout(
-                search,
-                home,
-                kategoriMenu,
-                akun
-        );
+        HorizontalLayout menuSection = new HorizontalLayout(search, home, kategoriMenu, akun);
         menuSection.setAlignItems(FlexComponent.Alignment.CENTER);
         menuSection.setSpacing("80px");
 
         // Navbar layout
-        HorizontalLayout navbar = new HorizontalLayout(
-                logo,
-                menuSection
-        );
+        HorizontalLayout navbar = new HorizontalLayout(logo, menuSection);
 
         navbar.setAlignItems(FlexComponent.Alignment.CENTER);
         navbar.setWidthFull();
         navbar.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
-        navbar.getStyle()
-                .set("padding", "0 1rem")
-                .set("box-shadow", "0 2px 4px rgba(0,0,0,0.1)");
+        navbar.getStyle().set("padding", "0 1rem").set("box-shadow", "0 2px 4px rgba(0,0,0,0.1)");
 
         return navbar;
     }
 
+    private void createSuggestions(TextField search) {
+        VerticalLayout list = new VerticalLayout();
+        list.setPadding(false);
+        list.setSpacing(false);
+
+        Popover popover = new Popover(list);
+        popover.setTarget(search);
+        popover.setPosition(PopoverPosition.BOTTOM_START);
+        popover.setOpenOnClick(false);
+        popover.setOpenOnFocus(false);
+        popover.setAutofocus(false);
+        popover.setWidth("300px");
+
+        // Lazy mode sends the value to the server only after the user stops typing, so a word costs one lookup
+        search.setValueChangeMode(ValueChangeMode.LAZY);
+        search.setValueChangeTimeout(SUGGESTION_DELAY_MS);
+        search.addValueChangeListener(e -> {
+            List<Suggestion> suggestions = bookSuggestionService.suggest(e.getValue(), MAX_SUGGESTIONS);
+            list.removeAll();
+            suggestions.forEach(suggestion -> list.add(createSuggestion(suggestion, popover)));
+            popover.setOpened(!suggestions.isEmpty());
+        });
+        search.addKeyDownListener(Key.ENTER, e -> popover.close());
+    }
+
+    private Component createSuggestion(Suggestion suggestion, Popover popover) {
+        Icon icon = new Icon(suggestion.type() == Suggestion.Type.TITLE ? VaadinIcon.BOOK : VaadinIcon.USER);
+        icon.setSize("14px");
+        icon.getStyle().set("color", "#999");
+
+        HorizontalLayout item = new HorizontalLayout(icon, new Span(suggestion.label()));
+        item.setAlignItems(FlexComponent.Alignment.CENTER);
+        item.setWidthFull();
+        item.getStyle().set("padding", "0.4rem 0.5rem").set("cursor", "pointer");
+
+        item.addClickListener(e -> {
+            popover.close();
+            if (suggestion.type() == Suggestion.Type.TITLE) {
+                UI.getCurrent().navigate("book/" + suggestion.bookId());
+            } else {
+                UI.getCurrent().navigate("search", QueryParameters.of("q", suggestion.label()));
+            }
+        });
+        return item;
+    }
+
     private Component createUserMenu() {
         var user = currentUser.require();
 
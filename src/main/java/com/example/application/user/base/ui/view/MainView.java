@@ -1,7 +1,11 @@
 package com.example.application.user.base.ui.view;
 
-import com.example.application.data.dao.BookDao;
+import com.example.application.cover.CoverSize;
+import com.example.application.cover.CoverStore;
+import com.example.application.data.BookViewRecorder;
+import com.example.application.data.cache.HomeShelfCache;
 import com.example.application.data.model.Book;
+import com.example.application.data.model.HomeShelves;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -18,58 +22,50 @@ import jakarta.annotation.security.PermitAll;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.List;
 
 @Route(value = "", layout = MainLayout.class)
 @PageTitle("Home")
 @PermitAll
 public final class MainView extends VerticalLayout {
 
-    private BookDao bookDao;
-    private static final String BOOK_IMAGE_PATH = "themes/default/images/books/";
+    private final BookViewRecorder bookViewRecorder;
+    private final CoverStore coverStore;
 
-    public MainView() {
-        bookDao = new BookDao();
+    public MainView(HomeShelfCache homeShelfCache, BookViewRecorder bookViewRecorder, CoverStore coverStore) {
+        this.bookViewRecorder = bookViewRecorder;
+        this.coverStore = coverStore;
 
         setPadding(false);
         setAlignItems(Alignment.CENTER);
         setSpacing(false);
         setWidthFull();
 
-        add(
-                createBanner(),
-                createSection("Buku Terbaru", bookDao.getNewestBooks(5)),
-                createSection("Buku Terbaik", bookDao.getTopRatedBooks(5)),
-                createSection("Buku Terlaris", bookDao.getMostViewedBooks(5)),
-                createFooter()
-        );
+        // Shared by all users and refreshed in the background, so building this view runs no queries
+        HomeShelves shelves = homeShelfCache.get();
+        add(createBanner(shelves.featured()), createSection("Buku Terbaru", shelves.newest()),
+                createSection("Buku Terbaik", shelves.topRated()), createSection("Buku Terlaris", shelves.mostViewed()),
+                createFooter());
     }
 
-    private String getImageUrl(String imageName) {
-        if (imageName == null || imageName.isEmpty()) {
-            // Return a placeholder SVG when no image is available
-            return "data:image/svg+xml,%3Csvg xmlns='http://www.w3.org/2000/svg' width='240' height='280' viewBox='0 0 240 280'%3E%3Crect width='240' height='280' fill='%23eee'/%3E%3Ctext x='50%' y='50%' font-family='Arial' font-size='16' fill='%23000' text-anchor='middle'%3ENo Cover%3C/text%3E%3C/svg%3E";
-        }
-        return BOOK_IMAGE_PATH + imageName;
+    // Content-hashed and cached by the browser for good, at the density of the screen; a placeholder SVG when there
+    // is no cover file
+    private Image createCover(String imageName, String title, CoverSize size) {
+        Image cover = new Image(coverStore.url(imageName, size), title);
+        cover.getElement().setAttribute("srcset", coverStore.srcset(imageName, size));
+        return cover;
     }
 
-    private Component createBanner() {
-        // Get a random featured book from the database
-        Book featuredBook = bookDao.getTopRatedBooks(1).getFirst();
+    private Component createBanner(Book featuredBook) {
         int id = featuredBook != null ? featuredBook.getId() : 1;
         String title = featuredBook != null ? featuredBook.getTitle() : "Judul Buku";
         String author = featuredBook != null ? featuredBook.getAuthor() : "Penulis";
         String synopsis = featuredBook != null ? featuredBook.getSynopsis() : "Sinopsis buku...";
         String imageName = featuredBook != null ? featuredBook.getImageCover() : null;
-        String imageUrl = getImageUrl(imageName);
-
         Div banner = new Div();
         banner.setWidthFull();
         banner.setHeight("500px");
-        banner.getStyle()
-                .set("background-color", "#2a160b")
-                .set("display", "flex")
-                .set("align-items", "center")
+        banner.getStyle().set("background-color", "#2a160b").set("display", "flex").set("align-items", "center")
                 .set("justify-content", "center");
 
         HorizontalLayout content = new HorizontalLayout();
@@ -77,7 +73,7 @@ public final class MainView extends VerticalLayout {
         content.setWidth("600px");
         content.setAlignItems(FlexComponent.Alignment.CENTER);
 
-        Image cover = new Image(imageUrl, title);
+        Image cover = createCover(imageName, title, CoverSize.BANNER);
         cover.setWidth("250px");
         cover.getStyle().set("box-shadow", "0 4px 12px rgba(0,0,0,0.3)");
 
@@ -89,7 +85,8 @@ public final class MainView extends VerticalLayout {
         H3 titleLabel = new H3(title);
         titleLabel.getStyle().set("color", "white");
 
-        Span info = new Span(author + " • " + (featuredBook != null ? featuredBook.getViewCount() + "x dibaca" : "0x dibaca"));
+        Span info = new Span(
+                author + " • " + (featuredBook != null ? featuredBook.getViewCount() + "x dibaca" : "0x dibaca"));
         info.getStyle().set("font-size", "14px").set("color", "#ccc");
 
         Button button = new Button("Baca Sekarang");
@@ -98,19 +95,14 @@ public final class MainView extends VerticalLayout {
         button.addClickListener(e -> {
             if (featuredBook != null) {
                 int memberId = getCurrentMemberId();
-                bookDao.recordBookView(id, memberId);
+                bookViewRecorder.record(id, memberId);
             }
             UI.getCurrent().navigate("book/" + id);
         });
 
         Span excerpt = new Span(synopsis.length() > 100 ? synopsis.substring(0, 100) + "..." : synopsis);
-        excerpt.getStyle()
-                .set("color", "white")
-                .set("font-size", "14px")
-                .set("display", "-webkit-box")
-                .set("-webkit-line-clamp", "3")
-                .set("-webkit-box-orient", "vertical")
-                .set("overflow", "hidden")
+        excerpt.getStyle().set("color", "white").set("font-size", "14px").set("display", "-webkit-box")
+                .set("-webkit-line-clamp", "3").set("-webkit-box-orient", "vertical").set("overflow", "hidden")
                 .set("text-overflow", "ellipsis");
 
         textContent.add(titleLabel, info, excerpt, button);
@@ -126,18 +118,13 @@ public final class MainView extends VerticalLayout {
         return titleLabel;
     }
 
-    private Component createBookGrid(ArrayList<Book> books) {
+    private Component createBookGrid(List<Book> books) {
         HorizontalLayout grid = new HorizontalLayout();
         grid.setSpacing(true);
         grid.setWrap(true);
         grid.setSizeUndefined();
-        grid.getStyle()
-                .set("max-width", "1200px")
-                .set("display", "flex")
-                .set("flex-wrap", "nowrap")
-                .set("scrollbar-width", "none")
-                .set("-ms-overflow-style", "none")
-                .set("overflow-x", "auto");
+        grid.getStyle().set("max-width", "1200px").set("display", "flex").set("flex-wrap", "nowrap")
+                .set("scrollbar-width", "none").set("-ms-overflow-style", "none").set("overflow-x", "auto");
         grid.getElement().executeJs("this.style.setProperty('::-webkit-scrollbar', 'display: none', 'important');");
 
         for (Book book : books) {
@@ -148,9 +135,7 @@ public final class MainView extends VerticalLayout {
     }
 
     private VerticalLayout createBookCard(Book book) {
-        String imageUrl = getImageUrl(book.getImageCover());
-
-        Image cover = new Image(imageUrl, book.getTitle());
+        Image cover = createCover(book.getImageCover(), book.getTitle(), CoverSize.CARD);
         cover.setHeight("280px");
         cover.setWidth("240px");
         cover.getStyle().set("border-radius", "4px");
@@ -170,30 +155,24 @@ public final class MainView extends VerticalLayout {
 
         card.addClickListener(e -> {
             int memberId = getCurrentMemberId();
-            bookDao.recordBookView(book.getId(), memberId);
+            bookViewRecorder.record(book.getId(), memberId);
             UI.getCurrent().navigate("book/" + book.getId());
         });
 
         return card;
     }
 
-    private VerticalLayout createSection(String title, ArrayList<Book> books) {
+    private VerticalLayout createSection(String title, List<Book> books) {
         VerticalLayout container = new VerticalLayout();
         container.setSizeUndefined();
-        container.add(
-                createSectionTitle(title),
-                createBookGrid(books)
-        );
+        container.add(createSectionTitle(title), createBookGrid(books));
         return container;
     }
 
     private Component createFooter() {
         Div footer = new Div();
         footer.setWidthFull();
-        footer.getStyle()
-                .set("padding", "2rem 0 2rem 0")
-                .set("text-align", "center")
-                .set("margin-top", "2rem");
+        footer.getStyle().set("padding", "2rem 0 2rem 0").set("text-align", "center").set("margin-top", "2rem");
 
         footer.add(new Span("© 2024 Book Store. All rights reserved."));
         return footer;
@@ -0,0 +1,213 @@
+package com.example.application.user.base.ui.view;
+
+import com.example.application.jfr.ViewBuildEvent;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.router.AfterNavigationEvent;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what building a view on navigation costs the server, per view.
+ * <p>
+ * Listeners on the UI hear {@code BeforeEnterEvent} before the router creates the route target and
+ * {@code AfterNavigationEvent} once it has been attached, so the time between them covers the view's constructor, its
+ * {@code beforeEnter} and attaching it, for every route without touching the views themselves. After that the
+ * components and elements under the route target are counted, and for a sample of
+ * {@code elibrary.view-metrics.session-sample-rate} of the navigations the UI is serialized, with its Vaadin session,
+ * to count the bytes it retains. Objects that cannot be serialized, such as the DAOs and other Spring beans the views
+ * hold, are left out of that count, as they are shared and not retained per session.
+ * </p>
+ * <p>
+ * Serializing walks the whole session under its lock, which costs more than most views take to build, so the sample
+ * rate is 0 and the session is not measured unless it is turned on while profiling.
+ * </p>
+ * <p>
+ * The results are the {@code elibrary.view.build} timer and the {@code elibrary.view.components},
+ * {@code elibrary.view.elements} and {@code elibrary.view.session} summaries, tagged by view, and every build is also a
+ * {@link ViewBuildEvent} for Java Flight Recorder. A view over any of the {@code elibrary.view-metrics.budget.*} limits
+ * is logged as a warning and counted in {@code elibrary.view.over-budget}.
+ * </p>
+ */
+@org.springframework.stereotype.Component
+class ViewBuildListener implements VaadinServiceInitListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewBuildListener.class);
+
+    private final Meter.MeterProvider<Timer> buildTimes;
+    private final Meter.MeterProvider<DistributionSummary> components;
+    private final Meter.MeterProvider<DistributionSummary> elements;
+    private final Meter.MeterProvider<DistributionSummary> sessionBytes;
+    private final Meter.MeterProvider<Counter> overBudget;
+    private final long timeBudgetNanos;
+    private final int componentBudget;
+    private final long sessionBudgetBytes;
+    private final double sessionSampleRate;
+
+    ViewBuildListener(MeterRegistry meterRegistry,
+            @Value("${elibrary.view-metrics.budget.time:250ms}") Duration timeBudget,
+            @Value("${elibrary.view-metrics.budget.components:2000}") int componentBudget,
+            @Value("${elibrary.view-metrics.budget.session:2MB}") DataSize sessionBudget,
+            @Value("${elibrary.view-metrics.session-sample-rate:0}") double sessionSampleRate) {
+        this.buildTimes = Timer.builder("elibrary.view.build")
+                .description("Time from entering a route until its view is built and attached")
+                .withRegistry(meterRegistry);
+        this.components = DistributionSummary.builder("elibrary.view.components")
+                .description("Components under the route target after navigating to it").withRegistry(meterRegistry);
+        this.elements = DistributionSummary.builder("elibrary.view.elements")
+                .description("Elements under the route target after navigating to it").withRegistry(meterRegistry);
+        this.sessionBytes = DistributionSummary.builder("elibrary.view.session").baseUnit("bytes")
+                .description(
+                        "Serialized size of the UI and its session after navigating to a view, shared beans left out")
+                .withRegistry(meterRegistry);
+        this.overBudget = Counter.builder("elibrary.view.over-budget")
+                .description(
+                        "Navigations whose view took longer, or held more components or session bytes, than its budget")
+                .withRegistry(meterRegistry);
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.componentBudget = componentBudget;
+        this.sessionBudgetBytes = sessionBudget.toBytes();
+        this.sessionSampleRate = sessionSampleRate;
+    }
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.getSource().addUIInitListener(uiInitEvent -> {
+            var navigation = new Navigation(uiInitEvent.getUI());
+            uiInitEvent.getUI().addBeforeEnterListener(navigation::beforeEnter);
+            uiInitEvent.getUI().addAfterNavigationListener(navigation::afterNavigation);
+        });
+    }
+
+    void record(UI ui, HasElement target, String location, long nanos) {
+        String view = target.getClass().getSimpleName();
+        int componentCount = target instanceof Component component ? countComponents(component) : 0;
+        int elementCount = countElements(target.getElement());
+        // Serialized from the UI, since in development mode the session writes itself without its UIs
+        long bytes = ui.getSession() != null && ThreadLocalRandom.current().nextDouble() < sessionSampleRate
+                ? serializedSize(ui)
+                : -1;
+
+        buildTimes.withTags("view", view).record(nanos, TimeUnit.NANOSECONDS);
+        components.withTags("view", view).record(componentCount);
+        elements.withTags("view", view).record(elementCount);
+        if (bytes >= 0) {
+            sessionBytes.withTags("view", view).record(bytes);
+        }
+
+        if (nanos > timeBudgetNanos || componentCount > componentBudget || bytes > sessionBudgetBytes) {
+            overBudget.withTags("view", view).increment();
+            log.warn("View {} at /{} is over budget: {} ms, {} components, {} elements, {}", view, location,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), componentCount, elementCount,
+                    bytes >= 0 ? bytes + " session bytes" : "session not measured");
+        }
+    }
+
+    static int countComponents(Component component) {
+        return 1 + component.getChildren().mapToInt(ViewBuildListener::countComponents).sum();
+    }
+
+    // Virtual children, such as the overlays of dialogs, are not part of the tree and not counted
+    static int countElements(Element element) {
+        int count = 1;
+        for (int i = 0; i < element.getChildCount(); i++) {
+            count += countElements(element.getChild(i));
+        }
+        return count;
+    }
+
+    // Bytes the object graph takes when serialized, with the objects that are not serializable left out; -1 on failure
+    static long serializedSize(Object root) {
+        var counter = new ByteCounter();
+        try (var out = new SerializableOnly(counter)) {
+            out.writeObject(root);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not measure the serialized size of {}", root, e);
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class ByteCounter extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private static final class SerializableOnly extends ObjectOutputStream {
+
+        SerializableOnly(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            return obj instanceof Serializable ? obj : null;
+        }
+    }
+
+    // One per UI, which is only ever used under its session lock
+    private final class Navigation {
+        private final UI ui;
+        private ViewBuildEvent event;
+        private long started;
+
+        Navigation(UI ui) {
+            this.ui = ui;
+        }
+
+        void beforeEnter(BeforeEnterEvent beforeEnterEvent) {
+            // A reroute or forward starts again; a navigation that was postponed is replaced by the next one
+            event = new ViewBuildEvent();
+            event.begin();
+            started = System.nanoTime();
+        }
+
+        void afterNavigation(AfterNavigationEvent afterNavigationEvent) {
+            if (event == null) {
+                return;
+            }
+            long nanos = System.nanoTime() - started;
+            event.end();
+            // The route target comes first, then its layouts
+            HasElement target = afterNavigationEvent.getActiveChain().getFirst();
+            String location = afterNavigationEvent.getLocation().getPathWithQueryParameters();
+            if (event.shouldCommit()) {
+                event.view = target.getClass().getSimpleName();
+                event.location = location;
+                event.commit();
+            }
+            event = null;
+            record(ui, target, location, nanos);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.application.user.book.detail;
 
+import com.example.application.cover.CoverSize;
+import com.example.application.cover.CoverStore;
+import com.example.application.data.BookViewRecorder;
+import com.example.application.data.cache.BookCache;
 import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.ReviewDao;
 import com.example.application.data.model.Book;
 import com.example.application.data.model.BookContent;
+import com.example.application.data.model.RatingHistogram;
+import com.example.application.data.model.Review;
+import com.example.application.data.model.ReviewPage;
 import com.example.application.user.base.ui.view.MainLayout;
+import com.example.application.user.book.reader.ChapterReaderView;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Text;
 import com.vaadin.flow.component.button.Button;
-import com.vaadin.flow.component.details.Details;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.icon.VaadinIcon;
@@ -18,9 +26,6 @@ import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.router.*;
 import jakarta.annotation.security.PermitAll;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,17 +34,28 @@ import java.util.List;
 @PermitAll
 public class BookDetailView extends VerticalLayout implements BeforeEnterObserver {
 
+    private static final int PREVIEW_LENGTH = 100;
+    private static final int REVIEW_PAGE_SIZE = 5;
+
     private String bookId;
-    private BookDao bookDao;
+    private final BookDao bookDao;
+    private final BookViewRecorder bookViewRecorder;
+    private final BookCache bookCache;
+    private final ReviewDao reviewDao;
+    private final CoverStore coverStore;
     private Book book;
     private List<BookContent> bookContents;
 
-    public BookDetailView() {
-        bookDao = new BookDao();
+    public BookDetailView(BookDao bookDao, BookViewRecorder bookViewRecorder, BookCache bookCache, ReviewDao reviewDao,
+            CoverStore coverStore) {
+        this.bookDao = bookDao;
+        this.bookViewRecorder = bookViewRecorder;
+        this.bookCache = bookCache;
+        this.reviewDao = reviewDao;
+        this.coverStore = coverStore;
 
         setAlignItems(Alignment.CENTER);
-        getStyle()
-                .set("gap", "2rem");
+        getStyle().set("gap", "2rem");
     }
 
     private void initializeView() {
@@ -50,13 +66,7 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
             return;
         }
 
-        add(
-                createBookInformation(),
-                createListBab(),
-                createReviewList(),
-                createReviewForm(),
-                createFooter()
-        );
+        add(createBookInformation(), createListBab(), createReviewList(), createReviewForm(), createFooter());
     }
 
     private Component createListBab() {
@@ -70,40 +80,33 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         }
 
         for (BookContent content : bookContents) {
-            container.add(createBabCard(
-                    "Bab " + content.getId(),
-                    book.getPublishDate().toString(),
-                    getPreview(content.getContent()),
-                    content.getContent()
-            ));
+            container.add(createBabCard(content));
         }
 
         return container;
     }
 
-    private String getPreview(String fullContent) {
-        if (fullContent == null || fullContent.length() < 100) {
-            return fullContent;
+    private String getPreview(BookContent chapter) {
+        if (chapter.getPreview() == null || chapter.getContentLength() <= PREVIEW_LENGTH) {
+            return chapter.getPreview();
         }
-        return fullContent.substring(0, 100) + "...";
+        return chapter.getPreview() + "...";
     }
 
-    private Component createBabCard(String title, String date, String preview, String fullContent) {
+    private Component createBabCard(BookContent chapter) {
+        String title = "Bab " + chapter.getChapterNumber();
+        String date = book.getPublishDate() != null ? book.getPublishDate().toString() : "";
+        String preview = getPreview(chapter);
+
         VerticalLayout cardLayout = new VerticalLayout();
         cardLayout.setPadding(true);
         cardLayout.setSpacing(false);
-        cardLayout.getStyle()
-                .set("border-radius", "12px")
-                .set("box-shadow", "0 2px 4px rgba(0, 0, 0, 0.1)")
-                .set("border", "1px solid #E0E0E0")
-                .set("padding", "20px")
-                .set("background-color", "white");
+        cardLayout.getStyle().set("border-radius", "12px").set("box-shadow", "0 2px 4px rgba(0, 0, 0, 0.1)")
+                .set("border", "1px solid #E0E0E0").set("padding", "20px").set("background-color", "white");
 
         H4 titleLabel = new H4(title);
         Span dateLabel = new Span(date);
-        dateLabel.getStyle()
-                .set("font-size", "12px")
-                .set("color", "#999");
+        dateLabel.getStyle().set("font-size", "12px").set("color", "#999");
 
         HorizontalLayout header = new HorizontalLayout(titleLabel, dateLabel);
         header.setWidthFull();
@@ -111,33 +114,20 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         header.setAlignItems(Alignment.BASELINE);
 
         Span previewLabel = new Span(preview);
-        previewLabel.getStyle()
-                .set("font-size", "14px")
-                .set("color", "#444");
-
-        Span fullContentLabel = new Span(fullContent);
-        fullContentLabel.getStyle()
-                .set("font-size", "14px")
-                .set("color", "#444");
-
-        VerticalLayout detailsContent = new VerticalLayout(fullContentLabel);
-        detailsContent.setPadding(false);
-        detailsContent.setSpacing(false);
-
-        Details expandable = new Details("Buka untuk membaca", detailsContent);
-        expandable.getStyle()
-                .set("font-size", "14px")
-                .set("color", "#1a73e8")
-                .set("margin-top", "12px");
-
-        cardLayout.add(header, previewLabel, expandable);
+        previewLabel.getStyle().set("font-size", "14px").set("color", "#444");
+
+        // The chapter is read page by page in the reader, so no chapter text is loaded here
+        RouterLink read = new RouterLink("Buka untuk membaca", ChapterReaderView.class, new RouteParameters(
+                new RouteParam("id", chapter.getBookId()), new RouteParam("chapter", chapter.getId())));
+        read.getStyle().set("font-size", "14px").set("color", "#1a73e8").set("margin-top", "12px");
+
+        cardLayout.add(header, previewLabel, read);
         return cardLayout;
     }
 
     private Component createBookInformation() {
-        String imageUrl = "/themes/default/images/books/" + (book.getImageCover() != null ? book.getImageCover() : "default.jpg");
-
-        Image cover = new Image(imageUrl, book.getTitle());
+        Image cover = new Image(coverStore.url(book.getImageCover(), CoverSize.DETAIL), book.getTitle());
+        cover.getElement().setAttribute("srcset", coverStore.srcset(book.getImageCover(), CoverSize.DETAIL));
         cover.setHeight("280px");
         cover.setWidth("240px");
         cover.getStyle().set("border-radius", "4px");
@@ -147,42 +137,29 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         VerticalLayout authorSection = new VerticalLayout();
         authorSection.setPadding(false);
         authorSection.setSpacing(false);
-        authorSection.add(
-                new Span("by " + book.getAuthor()),
-                new Span(bookContents != null ? bookContents.size() + " Bab" : "0 Bab")
-        );
+        authorSection.add(new Span("by " + book.getAuthor()),
+                new Span(bookContents != null ? bookContents.size() + " Bab" : "0 Bab"));
 
         var bookInfo = new VerticalLayout();
-        bookInfo.add(
-                bookTitle,
-                authorSection
-        );
+        bookInfo.add(bookTitle, authorSection);
 
         HorizontalLayout ratingCard = new HorizontalLayout();
         ratingCard.setJustifyContentMode(JustifyContentMode.BETWEEN);
         ratingCard.setAlignItems(Alignment.CENTER);
-        ratingCard.getStyle()
-                .set("min-width", "400px")
-                .set("border", "1px solid var(--lumo-contrast-20pct)")
-                .set("border-radius", "16px")
-                .set("padding", "16px 24px")
-                .set("background-color", "var(--lumo-base-color)")
-                .set("box-shadow", "0 2px 4px rgba(0,0,0,0.1)");
+        ratingCard.getStyle().set("min-width", "400px").set("border", "1px solid var(--lumo-contrast-20pct)")
+                .set("border-radius", "16px").set("padding", "16px 24px")
+                .set("background-color", "var(--lumo-base-color)").set("box-shadow", "0 2px 4px rgba(0,0,0,0.1)");
 
         Span readers = new Span(book.getViewCount() + " Pembaca");
-        readers.getStyle()
-                .set("font-size", "var(--lumo-font-size-m)")
-                .set("font-weight", "500");
+        readers.getStyle().set("font-size", "var(--lumo-font-size-m)").set("font-weight", "500");
 
         HorizontalLayout ratingSection = new HorizontalLayout();
         ratingSection.setAlignItems(Alignment.CENTER);
         ratingSection.setSpacing("6px");
 
         Span ratingValue = new Span(String.format("%.1f", book.getAverageRating()));
-        ratingValue.getStyle()
-                .set("font-size", "var(--lumo-font-size-l)")
-                .set("font-weight", "600")
-                .set("margin-right", "4px");
+        ratingValue.getStyle().set("font-size", "var(--lumo-font-size-l)").set("font-weight", "600").set("margin-right",
+                "4px");
 
         Icon star = new Icon(VaadinIcon.STAR);
         star.setSize("24px");
@@ -191,41 +168,73 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         ratingSection.add(star, ratingValue);
         ratingCard.add(readers, ratingSection);
 
+        VerticalLayout ratingPanel = new VerticalLayout(ratingCard,
+                createRatingDistribution(book.getRatingHistogram()));
+        ratingPanel.setPadding(false);
+        ratingPanel.setWidth("auto");
+
         var topSection = new HorizontalLayout();
         topSection.setAlignItems(Alignment.CENTER);
         topSection.setJustifyContentMode(JustifyContentMode.EVENLY);
-        topSection.add(
-                cover,
-                bookInfo,
-                ratingCard
-        );
+        topSection.add(cover, bookInfo, ratingPanel);
 
         var synopsisTitle = new Span("Sinopsis");
-        synopsisTitle.getStyle()
-                .set("font-weight", "bold");
+        synopsisTitle.getStyle().set("font-weight", "bold");
 
         var synopsis = new Span(book.getSynopsis() != null ? book.getSynopsis() : "No synopsis available");
-        synopsis.getStyle()
-                .set("text-align", "center");
+        synopsis.getStyle().set("text-align", "center");
 
         var bottomSection = new VerticalLayout();
         bottomSection.setAlignItems(Alignment.CENTER);
-        bottomSection.add(
-                synopsisTitle,
-                synopsis
-        );
+        bottomSection.add(synopsisTitle, synopsis);
 
         var container = new VerticalLayout();
         container.setWidth("1200px");
         container.setAlignItems(Alignment.CENTER);
-        container.add(
-                topSection,
-                bottomSection
-        );
+        container.add(topSection, bottomSection);
 
         return container;
     }
 
+    // One bar per star, five first, as wide as that star's share of all ratings
+    private Component createRatingDistribution(RatingHistogram histogram) {
+        VerticalLayout distribution = new VerticalLayout();
+        distribution.setPadding(false);
+        distribution.setSpacing(false);
+        distribution.setWidthFull();
+
+        int total = histogram.total();
+        for (int stars = 5; stars >= 1; stars--) {
+            int count = histogram.count(stars);
+
+            Span label = new Span(stars + "★");
+            label.setWidth("32px");
+
+            Div fill = new Div();
+            fill.getStyle().set("height", "100%").set("width", (total == 0 ? 0 : 100.0 * count / total) + "%")
+                    .set("background-color", "gold").set("border-radius", "4px");
+
+            Div bar = new Div(fill);
+            bar.getStyle().set("flex-grow", "1").set("height", "8px")
+                    .set("background-color", "var(--lumo-contrast-10pct)").set("border-radius", "4px");
+
+            Span countLabel = new Span(String.valueOf(count));
+            countLabel.setWidth("40px");
+            countLabel.getStyle().set("text-align", "right");
+
+            HorizontalLayout row = new HorizontalLayout(label, bar, countLabel);
+            row.setWidthFull();
+            row.setAlignItems(Alignment.CENTER);
+            row.getStyle().set("font-size", "var(--lumo-font-size-s)");
+            distribution.add(row);
+        }
+
+        Span summary = new Span(total + " penilaian");
+        summary.getStyle().set("font-size", "var(--lumo-font-size-s)").set("color", "#999");
+        distribution.add(summary);
+        return distribution;
+    }
+
     private Component createReviewList() {
         VerticalLayout container = new VerticalLayout();
         container.setWidth("1200px");
@@ -234,24 +243,44 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         H3 title = new H3("Ulasan Novel");
         title.getStyle().set("font-weight", "bold").set("font-size", "20px").set("color", "#0d1b2a");
 
-        container.add(title);
+        VerticalLayout reviews = new VerticalLayout();
+        reviews.setPadding(false);
+        reviews.setSpacing(true);
 
-        // TODO: Replace with actual reviews from database
-        for (int i = 0; i < 4; i++) {
-            container.add(createReviewCard("Risca Vivi Restiyani", 4, "Lorem Ipsum is simply dummy text of the printing and typesetting industry"));
+        Button loadMore = new Button("Muat lebih banyak");
+        loadMore.getStyle().set("align-self", "center");
+
+        container.add(title, reviews, loadMore);
+
+        // Newest first, one page at a time; each click continues after the last review shown
+        ReviewPage[] page = { reviewDao.getReviews(book.getId(), null, REVIEW_PAGE_SIZE) };
+        addReviews(reviews, page[0]);
+        loadMore.setVisible(page[0].hasNext());
+        loadMore.addClickListener(e -> {
+            page[0] = reviewDao.getReviews(book.getId(), page[0].next(), REVIEW_PAGE_SIZE);
+            addReviews(reviews, page[0]);
+            loadMore.setVisible(page[0].hasNext());
+        });
+
+        if (page[0].reviews().isEmpty()) {
+            reviews.add(new Span("Belum ada ulasan"));
         }
 
         return container;
     }
 
+    private void addReviews(VerticalLayout reviews, ReviewPage page) {
+        for (Review review : page.reviews()) {
+            String name = review.memberName() != null ? review.memberName() : "Anonim";
+            reviews.add(createReviewCard(name, review.rating(), review.comment() != null ? review.comment() : ""));
+        }
+    }
+
     private Component createReviewCard(String name, int rating, String comment) {
         VerticalLayout card = new VerticalLayout();
         card.setPadding(true);
         card.setSpacing(false);
-        card.getStyle()
-                .set("border", "1px solid #ddd")
-                .set("border-radius", "8px")
-                .set("background-color", "white")
+        card.getStyle().set("border", "1px solid #ddd").set("border-radius", "8px").set("background-color", "white")
                 .set("padding", "12px");
 
         Span nameLabel = new Span(name);
@@ -282,7 +311,7 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         H4 ratingLabel = new H4("Beri Rating");
         HorizontalLayout ratingStars = new HorizontalLayout();
         List<Icon> stars = new ArrayList<>();
-        final int[] selectedRating = {0};
+        final int[] selectedRating = { 0 };
 
         for (int i = 1; i <= 5; i++) {
             Icon star = new Icon(VaadinIcon.STAR);
@@ -315,8 +344,19 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         cancel.getStyle().set("background-color", "#f8d7da").set("color", "#721c24");
 
         Button save = new Button("Simpan", e -> {
-            // TODO: Implement save review to database
+            if (selectedRating[0] == 0) {
+                Notification.show("Pilih rating terlebih dahulu");
+                return;
+            }
+            String comment = commentInput.getValue().isBlank() ? null : commentInput.getValue().trim();
+            if (!reviewDao.addReview(book.getId(), getCurrentMemberId(), selectedRating[0], comment)) {
+                Notification.show("Ulasan gagal disimpan, coba lagi");
+                return;
+            }
             Notification.show("Ulasan disimpan: " + selectedRating[0] + " bintang");
+            // Saving updated the ratings in book_stats, which evicts the cached book, so this shows the new average
+            book = bookCache.get(book.getId());
+            initializeView();
         });
         save.getStyle().set("background-color", "#d1ecf1").set("color", "#0c5460");
 
@@ -329,10 +369,7 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
     private Component createFooter() {
         Div footer = new Div();
         footer.setWidthFull();
-        footer.getStyle()
-                .set("padding", "2rem 0 2rem 0")
-                .set("text-align", "center")
-                .set("margin-top", "2rem");
+        footer.getStyle().set("padding", "2rem 0 2rem 0").set("text-align", "center").set("margin-top", "2rem");
 
         footer.add(new Span("© 2024 Book Store. All rights reserved."));
         return footer;
@@ -343,12 +380,14 @@ public class BookDetailView extends VerticalLayout implements BeforeEnterObserve
         this.bookId = beforeEnterEvent.getRouteParameters().get("id").orElse("1");
 
         // Load book data
-        this.book = bookDao.getBookById(Integer.parseInt(bookId));
-        this.bookContents = bookDao.getBookContents(Integer.parseInt(bookId));
+        this.book = bookCache.get(Integer.parseInt(bookId));
+        this.bookContents = bookDao.getChapterIndex(Integer.parseInt(bookId), PREVIEW_LENGTH);
 
-        // Record view
-        int memberId = getCurrentMemberId(); // Implement this based on your auth system
-        bookDao.recordBookView(Integer.parseInt(bookId), memberId);
+        // Record view, only of books that exist
+        if (book != null) {
+            int memberId = getCurrentMemberId(); // Implement this based on your auth system
+            bookViewRecorder.record(book.getId(), memberId);
+        }
 
         initializeView();
     }
@@ -0,0 +1,142 @@
+package com.example.application.user.book.reader;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.model.BookContent;
+import com.example.application.user.base.ui.view.MainLayout;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.BeforeEnterObserver;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.QueryParameters;
+import com.vaadin.flow.router.Route;
+import jakarta.annotation.security.PermitAll;
+
+import java.util.List;
+
+/**
+ * Reads one chapter a page at a time.
+ * <p>
+ * The view only keeps the chapter index (ids and lengths, no text) and the page being shown. Each page is fetched as a
+ * slice of {@code PAGE_SIZE} characters, and moving to another page navigates to {@code ?page=n} so the previous slice
+ * is dropped along with the old view state. The index is loaded once per book, as the router keeps this view for
+ * navigations within it.
+ * </p>
+ */
+@Route(value = "book/:id/read/:chapter", layout = MainLayout.class)
+@PageTitle("Baca")
+@PermitAll
+public class ChapterReaderView extends VerticalLayout implements BeforeEnterObserver {
+
+    private static final int PAGE_SIZE = 4000;
+
+    private final BookDao bookDao;
+
+    // The chapter index of the book being read, loaded once: turning a page navigates, but keeps this view instance
+    private int indexedBookId;
+    private List<BookContent> chapters;
+
+    public ChapterReaderView(BookDao bookDao) {
+        this.bookDao = bookDao;
+
+        setAlignItems(Alignment.CENTER);
+        getStyle().set("gap", "1rem");
+    }
+
+    private void initializeView(int bookId, List<BookContent> chapters, int index, int page, String text) {
+        removeAll();
+
+        BookContent chapter = chapters.get(index);
+        int pageCount = pageCount(chapter);
+
+        H3 title = new H3("Bab " + chapter.getChapterNumber());
+
+        Paragraph content = new Paragraph(text);
+        content.setWidth("800px");
+        content.getStyle().set("white-space", "pre-line").set("font-size", "16px").set("line-height", "1.7")
+                .set("color", "#222");
+
+        Span pageInfo = new Span("Halaman " + page + " dari " + pageCount);
+        pageInfo.getStyle().set("font-size", "12px").set("color", "#999");
+
+        add(title, pageInfo, content, createNavigation(bookId, chapters, index, page, pageCount));
+    }
+
+    private Component createNavigation(int bookId, List<BookContent> chapters, int index, int page, int pageCount) {
+        Button previous = new Button("Sebelumnya");
+        if (page > 1) {
+            previous.addClickListener(e -> navigate(bookId, chapters.get(index), page - 1));
+        } else if (index > 0) {
+            BookContent previousChapter = chapters.get(index - 1);
+            previous.addClickListener(e -> navigate(bookId, previousChapter, pageCount(previousChapter)));
+        } else {
+            previous.setEnabled(false);
+        }
+
+        Button back = new Button("Kembali ke Buku", e -> UI.getCurrent().navigate("book/" + bookId));
+
+        Button next = new Button("Selanjutnya");
+        if (page < pageCount) {
+            next.addClickListener(e -> navigate(bookId, chapters.get(index), page + 1));
+        } else if (index < chapters.size() - 1) {
+            next.addClickListener(e -> navigate(bookId, chapters.get(index + 1), 1));
+        } else {
+            next.setEnabled(false);
+        }
+
+        HorizontalLayout navigation = new HorizontalLayout(previous, back, next);
+        navigation.setWidth("800px");
+        navigation.setJustifyContentMode(JustifyContentMode.BETWEEN);
+        return navigation;
+    }
+
+    private void navigate(int bookId, BookContent chapter, int page) {
+        UI.getCurrent().navigate("book/" + bookId + "/read/" + chapter.getId(),
+                QueryParameters.of("page", String.valueOf(page)));
+    }
+
+    private static int pageCount(BookContent chapter) {
+        return Math.max(1, (chapter.getContentLength() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    @Override
+    public void beforeEnter(BeforeEnterEvent beforeEnterEvent) {
+        int bookId = beforeEnterEvent.getRouteParameters().getInteger("id").orElse(0);
+        int chapterId = beforeEnterEvent.getRouteParameters().getInteger("chapter").orElse(0);
+        int page = beforeEnterEvent.getLocation().getQueryParameters().getSingleParameter("page")
+                .map(value -> parseInt(value, 1)).orElse(1);
+
+        if (chapters == null || indexedBookId != bookId) {
+            // A zero-length preview: chapter ids and lengths only
+            chapters = bookDao.getChapterIndex(bookId, 0);
+            indexedBookId = bookId;
+        }
+        int index = 0;
+        while (index < chapters.size() && chapters.get(index).getId() != chapterId) {
+            index++;
+        }
+        if (index == chapters.size()) {
+            removeAll();
+            add(new H3("Bab tidak ditemukan"));
+            return;
+        }
+
+        page = Math.clamp(page, 1, pageCount(chapters.get(index)));
+        String text = bookDao.getChapterText(bookId, chapterId, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+        initializeView(bookId, chapters, index, page, text != null ? text : "");
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.application.user.category.ui;
 
+import com.example.application.cover.CoverSize;
+import com.example.application.cover.CoverStore;
+import com.example.application.data.BookViewRecorder;
+import com.example.application.data.cache.CategoryRegistry;
 import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.BookSort;
 import com.example.application.data.model.Book;
+import com.example.application.data.model.BookPage;
+import com.example.application.data.model.Category;
 import com.example.application.user.base.ui.view.MainLayout;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H3;
@@ -26,13 +34,26 @@ import java.util.List;
 @PermitAll
 public class CategoryView extends VerticalLayout implements BeforeEnterObserver {
 
-    private String categoryName;
+    private static final int PAGE_SIZE = 20;
+
+    private Category category;
+    private BookSort sort = BookSort.POPULAR;
+    private BookPage page;
     private List<Book> books = new ArrayList<>();
-    private BookDao bookDao;
+    private HorizontalLayout grid;
+    private Button loadMore;
+    private final BookDao bookDao;
+    private final BookViewRecorder bookViewRecorder;
+    private final CategoryRegistry categoryRegistry;
+    private final CoverStore coverStore;
     private ComboBox<String> orderOpts;
 
-    public CategoryView() {
-        bookDao = new BookDao();
+    public CategoryView(BookDao bookDao, BookViewRecorder bookViewRecorder, CategoryRegistry categoryRegistry,
+            CoverStore coverStore) {
+        this.bookDao = bookDao;
+        this.bookViewRecorder = bookViewRecorder;
+        this.categoryRegistry = categoryRegistry;
+        this.coverStore = coverStore;
 
         setAlignItems(Alignment.CENTER);
         getStyle().set("padding", "2rem");
@@ -40,28 +61,19 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
     }
 
     private Component createHeader() {
-        H3 title = new H3("Kumpulan Novel " + categoryName + " Best Seller Terbaik");
+        H3 title = new H3("Kumpulan Novel " + category.getName() + " Best Seller Terbaik");
 
         orderOpts = new ComboBox<>("Urutan Berdasarkan");
-        orderOpts.setItems(
-                "Popularitas",
-                "Rating",
-                "Terbaru",
-                "Terlama",
-                "Abjad"
-        );
-        orderOpts.setValue("Popularitas");
+        orderOpts.setItems("Popularitas", "Rating", "Terbaru", "Terlama", "Abjad");
+        orderOpts.setValue(convertSortOption(sort));
 
         orderOpts.addValueChangeListener(e -> {
-            String sortBy = convertSortOption(e.getValue());
-            books = bookDao.getBooksByCategory(categoryName, sortBy);
+            sort = BookSort.fromKey(convertSortOption(e.getValue()));
+            loadFirstPage();
             refreshBookGrid();
         });
 
-        VerticalLayout container = new VerticalLayout(
-                title,
-                orderOpts
-        );
+        VerticalLayout container = new VerticalLayout(title, orderOpts);
         container.setWidth("1260px");
         container.setPadding(false);
         container.setMargin(true);
@@ -72,24 +84,42 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
 
     private String convertSortOption(String uiOption) {
         switch (uiOption) {
-            case "Popularitas": return "popular";
-            case "Rating": return "rating";
-            case "Terbaru": return "newest";
-            case "Terlama": return "oldest";
-            case "Abjad": return "alphabetical";
-            default: return "popular";
+        case "Popularitas":
+            return "popular";
+        case "Rating":
+            return "rating";
+        case "Terbaru":
+            return "newest";
+        case "Terlama":
+            return "oldest";
+        case "Abjad":
+            return "alphabetical";
+        default:
+            return "popular";
+        }
+    }
+
+    private String convertSortOption(BookSort sort) {
+        switch (sort) {
+        case RATING:
+            return "Rating";
+        case NEWEST:
+            return "Terbaru";
+        case OLDEST:
+            return "Terlama";
+        case ALPHABETICAL:
+            return "Abjad";
+        default:
+            return "Popularitas";
         }
     }
 
     private Component createBookGrid() {
-        HorizontalLayout grid = new HorizontalLayout();
+        grid = new HorizontalLayout();
         grid.setSpacing(true);
         grid.setWrap(true);
         grid.setSizeUndefined();
-        grid.getStyle()
-                .set("display", "grid")
-                .set("grid-template-columns", "repeat(5, 1fr)")
-                .set("gap", "1rem")
+        grid.getStyle().set("display", "grid").set("grid-template-columns", "repeat(5, 1fr)").set("gap", "1rem")
                 .set("width", "1260px");
 
         for (Book book : books) {
@@ -99,10 +129,31 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
         return grid;
     }
 
-    private VerticalLayout createBookCard(Book book) {
-        String imageUrl = "/themes/default/images/books/" + book.getImageCover();
+    private Component createLoadMoreButton() {
+        loadMore = new Button("Muat Lebih Banyak", e -> loadNextPage());
+        loadMore.getStyle().set("color", "white").set("background-color", "#0f828c");
+        loadMore.setVisible(page.hasNext());
+        return loadMore;
+    }
+
+    private void loadFirstPage() {
+        page = bookDao.getBooksPage(category.getId(), sort, null, PAGE_SIZE);
+        books = new ArrayList<>(page.books());
+    }
 
-        Image cover = new Image(imageUrl, book.getTitle());
+    // Appends the next page to the grid; only the new cards are created
+    private void loadNextPage() {
+        page = bookDao.getBooksPage(category.getId(), sort, page.next(), PAGE_SIZE);
+        books.addAll(page.books());
+        for (Book book : page.books()) {
+            grid.add(createBookCard(book));
+        }
+        loadMore.setVisible(page.hasNext());
+    }
+
+    private VerticalLayout createBookCard(Book book) {
+        Image cover = new Image(coverStore.url(book.getImageCover(), CoverSize.CARD), book.getTitle());
+        cover.getElement().setAttribute("srcset", coverStore.srcset(book.getImageCover(), CoverSize.CARD));
         cover.setHeight("280px");
         cover.setWidth("240px");
         cover.getStyle().set("border-radius", "4px");
@@ -122,7 +173,7 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
 
         card.addClickListener(e -> {
             int memberId = getCurrentMemberId(); // Implement this based on your auth system
-            bookDao.recordBookView(book.getId(), memberId);
+            bookViewRecorder.record(book.getId(), memberId);
             UI.getCurrent().navigate("book/" + book.getId());
         });
 
@@ -132,10 +183,7 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
     private Component createFooter() {
         Div footer = new Div();
         footer.setWidthFull();
-        footer.getStyle()
-                .set("padding", "2rem 0 2rem 0")
-                .set("text-align", "center")
-                .set("margin-top", "2rem");
+        footer.getStyle().set("padding", "2rem 0 2rem 0").set("text-align", "center").set("margin-top", "2rem");
 
         footer.add(new Span("© 2024 Book Store. All rights reserved."));
         return footer;
@@ -143,11 +191,7 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
 
     private void refreshBookGrid() {
         removeAll();
-        add(
-                createHeader(),
-                createBookGrid(),
-                createFooter()
-        );
+        add(createHeader(), createBookGrid(), createLoadMoreButton(), createFooter());
     }
 
     private int getCurrentMemberId() {
@@ -159,16 +203,17 @@ public class CategoryView extends VerticalLayout implements BeforeEnterObserver
     @Override
     public void beforeEnter(BeforeEnterEvent beforeEnterEvent) {
         String nameParam = beforeEnterEvent.getRouteParameters().get("name").orElse("Fiksi");
-        this.categoryName = nameParam.substring(0, 1).toUpperCase() + nameParam.substring(1);
+        this.category = categoryRegistry.getByName(nameParam);
+        if (category == null) {
+            removeAll();
+            add(new H3("Kategori tidak ditemukan"));
+            return;
+        }
 
-        // Get books by category name with default sorting
-        books = bookDao.getBooksByCategory(categoryName, "popular");
+        // Get the first page of books by category id with default sorting
+        sort = BookSort.POPULAR;
+        loadFirstPage();
 
-        removeAll();
-        add(
-                createHeader(),
-                createBookGrid(),
-                createFooter()
-        );
+        refreshBookGrid();
     }
 }
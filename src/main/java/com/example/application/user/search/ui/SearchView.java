@@ -0,0 +1,123 @@
+package com.example.application.user.search.ui;
+
+import com.example.application.cover.CoverSize;
+import com.example.application.cover.CoverStore;
+import com.example.application.data.BookViewRecorder;
+import com.example.application.data.cache.BookCache;
+import com.example.application.data.model.Book;
+import com.example.application.search.BookSearchService;
+import com.example.application.search.SearchHit;
+import com.example.application.user.base.ui.view.MainLayout;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Image;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.BeforeEnterObserver;
+import com.vaadin.flow.router.PageTitle;
+import com.vaadin.flow.router.Route;
+import jakarta.annotation.security.PermitAll;
+
+import java.util.List;
+
+@Route(value = "search", layout = MainLayout.class)
+@PageTitle("Pencarian")
+@PermitAll
+public class SearchView extends VerticalLayout implements BeforeEnterObserver {
+
+    private static final int MAX_RESULTS = 50;
+
+    private final BookSearchService bookSearchService;
+    private final BookCache bookCache;
+    private final BookViewRecorder bookViewRecorder;
+    private final CoverStore coverStore;
+
+    public SearchView(BookSearchService bookSearchService, BookCache bookCache, BookViewRecorder bookViewRecorder,
+            CoverStore coverStore) {
+        this.bookSearchService = bookSearchService;
+        this.bookCache = bookCache;
+        this.bookViewRecorder = bookViewRecorder;
+        this.coverStore = coverStore;
+
+        setAlignItems(Alignment.CENTER);
+        getStyle().set("padding", "2rem");
+    }
+
+    private Component createHeader(String query, int count) {
+        H3 title = new H3("Hasil pencarian untuk \"" + query + "\"");
+        Span summary = new Span(count + " buku ditemukan");
+        summary.getStyle().set("font-size", "14px").set("color", "#999");
+
+        VerticalLayout container = new VerticalLayout(title, summary);
+        container.setWidth("1260px");
+        container.setPadding(false);
+        container.setSpacing(false);
+        return container;
+    }
+
+    private Component createBookGrid(List<Book> books) {
+        HorizontalLayout grid = new HorizontalLayout();
+        grid.setSpacing(true);
+        grid.setWrap(true);
+        grid.setSizeUndefined();
+        grid.getStyle().set("display", "grid").set("grid-template-columns", "repeat(5, 1fr)").set("gap", "1rem")
+                .set("width", "1260px");
+
+        for (Book book : books) {
+            grid.add(createBookCard(book));
+        }
+
+        return grid;
+    }
+
+    private VerticalLayout createBookCard(Book book) {
+        Image cover = new Image(coverStore.url(book.getImageCover(), CoverSize.CARD), book.getTitle());
+        cover.getElement().setAttribute("srcset", coverStore.srcset(book.getImageCover(), CoverSize.CARD));
+        cover.setHeight("280px");
+        cover.setWidth("240px");
+        cover.getStyle().set("border-radius", "4px");
+
+        Div titleLabel = new Div(book.getTitle());
+        titleLabel.getStyle().set("font-weight", "bold");
+
+        Div authorLabel = new Div("by " + book.getAuthor());
+        Div category = new Div(book.getCategoryName());
+        Div rate = new Div(String.format("Rating: %.1f", book.getAverageRating()));
+
+        VerticalLayout card = new VerticalLayout(cover, titleLabel, authorLabel, category, rate);
+        card.setPadding(false);
+        card.setSpacing(false);
+        card.setAlignItems(Alignment.START);
+        card.setWidth("240px");
+
+        card.addClickListener(e -> {
+            int memberId = getCurrentMemberId(); // Implement this based on your auth system
+            bookViewRecorder.record(book.getId(), memberId);
+            UI.getCurrent().navigate("book/" + book.getId());
+        });
+
+        return card;
+    }
+
+    private int getCurrentMemberId() {
+        // Implement this based on your authentication system
+        // Return the currently logged-in member's ID
+        return 1; // Default or placeholder
+    }
+
+    @Override
+    public void beforeEnter(BeforeEnterEvent beforeEnterEvent) {
+        String query = beforeEnterEvent.getLocation().getQueryParameters().getSingleParameter("q").orElse("").trim();
+
+        // Ranked from the in-memory index; the book details mostly come from the book cache, the rest in one query
+        List<Integer> bookIds = bookSearchService.search(query, MAX_RESULTS).stream().map(SearchHit::bookId).toList();
+        List<Book> books = bookCache.getAll(bookIds);
+
+        removeAll();
+        add(createHeader(query, books.size()), createBookGrid(books));
+    }
+}
@@ -0,0 +1,13 @@
+-- Indexes that let BookDao.getBooksPage seek straight to the next page instead of scanning past earlier ones.
+-- The trailing id column matches the tie-breaker of every BookSort order.
+CREATE INDEX idx_books_category_publish_date ON books (category_id, publish_date, id);
+CREATE INDEX idx_books_category_title ON books (category_id, title, id);
+CREATE INDEX idx_books_publish_date ON books (publish_date, id);
+CREATE INDEX idx_books_title ON books (title, id);
+
+-- Chapter index of a book in chapter order (BookDao.getChapterIndex).
+CREATE INDEX idx_book_content_book ON book_content (book_id, id);
+
+-- A member's reading history, most recent first (BookDao.getRecentlyRead). book_id makes the index covering, so the
+-- per-book deduplication never reads the table rows.
+CREATE INDEX idx_book_history_member ON book_history (member_id, id, book_id);
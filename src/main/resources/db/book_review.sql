@@ -0,0 +1,17 @@
+-- Book reviews, read newest first one page at a time by ReviewDao.getReviews.
+-- The index matches that order, with id breaking ties between reviews saved in the same millisecond, so every
+-- page is a range seek instead of a sort over all reviews of the book.
+-- Ratings are also added to book_stats when a review is saved, in the same transaction.
+-- Created together with book_stats by --rebuild-book-stats (see BookStatsRebuildCommand), or apply it by hand.
+CREATE TABLE IF NOT EXISTS book_review (
+    id         INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    book_id    INT          NOT NULL,
+    member_id  INT          NOT NULL,
+    rating     TINYINT      NOT NULL,
+    comment    TEXT,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    KEY idx_book_review_book_created (book_id, created_at, id),
+    CONSTRAINT chk_book_review_rating CHECK (rating BETWEEN 1 AND 5),
+    CONSTRAINT fk_book_review_book FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE,
+    CONSTRAINT fk_book_review_member FOREIGN KEY (member_id) REFERENCES members (id) ON DELETE CASCADE
+);
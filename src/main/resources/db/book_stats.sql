@@ -0,0 +1,38 @@
+-- Denormalized per-book statistics, maintained incrementally by BookDao whenever a view or rating is written.
+-- The list queries read from this table instead of aggregating book_history on every request. Every book has a row,
+-- so the popularity and rating pages can seek on the view_count and avg_rating indexes, which InnoDB extends with the
+-- book_id primary key; the triggers below add the row of a new book and a rebuild those of existing ones. The book's
+-- category_id is copied here, and kept in step by the update trigger, so that the pages of one category seek on
+-- (category_id, view_count) and (category_id, avg_rating) instead of filtering the whole catalog's order.
+-- Backfill or repair it with: ./mvnw spring-boot:run -Dspring-boot.run.arguments=--rebuild-book-stats
+-- The category_id column came later; add it to an existing table before rebuilding with
+--   ALTER TABLE book_stats ADD COLUMN category_id INT NOT NULL DEFAULT 0 AFTER book_id,
+--     ADD KEY idx_book_stats_category_view_count (category_id, view_count),
+--     ADD KEY idx_book_stats_category_avg_rating (category_id, avg_rating);
+-- The per-star counters rating_1..rating_5 came later; add them to an existing table before rebuilding with
+--   ALTER TABLE book_stats ADD COLUMN rating_1 INT NOT NULL DEFAULT 0, ADD COLUMN rating_2 INT NOT NULL DEFAULT 0,
+--     ADD COLUMN rating_3 INT NOT NULL DEFAULT 0, ADD COLUMN rating_4 INT NOT NULL DEFAULT 0,
+--     ADD COLUMN rating_5 INT NOT NULL DEFAULT 0;
+CREATE TABLE IF NOT EXISTS book_stats (
+    book_id      INT          NOT NULL PRIMARY KEY,
+    category_id  INT          NOT NULL,
+    view_count   INT          NOT NULL DEFAULT 0,
+    rating_sum   DOUBLE       NOT NULL DEFAULT 0,
+    rating_count INT          NOT NULL DEFAULT 0,
+    rating_1     INT          NOT NULL DEFAULT 0,
+    rating_2     INT          NOT NULL DEFAULT 0,
+    rating_3     INT          NOT NULL DEFAULT 0,
+    rating_4     INT          NOT NULL DEFAULT 0,
+    rating_5     INT          NOT NULL DEFAULT 0,
+    avg_rating   DOUBLE GENERATED ALWAYS AS (CASE WHEN rating_count = 0 THEN 0 ELSE rating_sum / rating_count END) STORED,
+    KEY idx_book_stats_view_count (view_count),
+    KEY idx_book_stats_avg_rating (avg_rating),
+    KEY idx_book_stats_category_view_count (category_id, view_count),
+    KEY idx_book_stats_category_avg_rating (category_id, avg_rating),
+    CONSTRAINT fk_book_stats_book FOREIGN KEY (book_id) REFERENCES books (id) ON DELETE CASCADE
+);
+CREATE TRIGGER IF NOT EXISTS trg_books_book_stats AFTER INSERT ON books FOR EACH ROW
+    INSERT IGNORE INTO book_stats (book_id, category_id) VALUES (NEW.id, NEW.category_id);
+CREATE TRIGGER IF NOT EXISTS trg_books_book_stats_category AFTER UPDATE ON books FOR EACH ROW
+    UPDATE book_stats SET category_id = NEW.category_id
+    WHERE book_id = NEW.id AND category_id <> NEW.category_id;
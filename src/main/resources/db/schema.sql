@@ -0,0 +1,73 @@
+-- Elibrary schema for the embedded H2 databases in MySQL compatibility mode: the tests, and the perf profile that
+-- runs the application on a generated dataset (see DatasetGenerator). Production runs on MySQL with its own DDL.
+CREATE TABLE IF NOT EXISTS categories (
+    id   INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS members (
+    id        INT AUTO_INCREMENT PRIMARY KEY,
+    name      VARCHAR(100) NOT NULL,
+    birthdate DATE,
+    email     VARCHAR(100),
+    password  VARCHAR(255),
+    status    BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS books (
+    id           INT AUTO_INCREMENT PRIMARY KEY,
+    category_id  INT NOT NULL,
+    title        VARCHAR(255) NOT NULL,
+    author       VARCHAR(255),
+    publisher    VARCHAR(255),
+    synopsis     TEXT,
+    image_cover  VARCHAR(255),
+    publish_date DATE
+);
+
+CREATE TABLE IF NOT EXISTS book_content (
+    id      INT AUTO_INCREMENT PRIMARY KEY,
+    book_id INT NOT NULL,
+    content TEXT
+);
+
+CREATE TABLE IF NOT EXISTS book_history (
+    id        INT AUTO_INCREMENT PRIMARY KEY,
+    book_id   INT NOT NULL,
+    member_id INT NOT NULL,
+    rating    DOUBLE,
+    review    TEXT
+);
+-- MySQL creates this index for the foreign key to books; the stats rebuild and per-book aggregates depend on it.
+CREATE INDEX IF NOT EXISTS idx_book_history_book ON book_history (book_id);
+
+CREATE TABLE IF NOT EXISTS book_stats (
+    book_id      INT    NOT NULL PRIMARY KEY,
+    category_id  INT    NOT NULL,
+    view_count   INT    NOT NULL DEFAULT 0,
+    rating_sum   DOUBLE NOT NULL DEFAULT 0,
+    rating_count INT    NOT NULL DEFAULT 0,
+    rating_1     INT    NOT NULL DEFAULT 0,
+    rating_2     INT    NOT NULL DEFAULT 0,
+    rating_3     INT    NOT NULL DEFAULT 0,
+    rating_4     INT    NOT NULL DEFAULT 0,
+    rating_5     INT    NOT NULL DEFAULT 0,
+    avg_rating   DOUBLE GENERATED ALWAYS AS (CASE WHEN rating_count = 0 THEN 0 ELSE rating_sum / rating_count END)
+);
+-- Every book needs a row for the popularity and rating pages (see BookSort); the embedded databases get them from
+-- BookDao.rebuildBookStats, which DatasetGenerator runs, and from the first view or rating of a book, instead of
+-- MySQL's triggers. The other orders list books without a row too.
+CREATE INDEX IF NOT EXISTS idx_book_stats_view_count ON book_stats (view_count, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_stats_avg_rating ON book_stats (avg_rating, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_stats_category_view_count ON book_stats (category_id, view_count, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_stats_category_avg_rating ON book_stats (category_id, avg_rating, book_id);
+
+CREATE TABLE IF NOT EXISTS book_review (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    book_id    INT          NOT NULL,
+    member_id  INT          NOT NULL,
+    rating     TINYINT      NOT NULL,
+    comment    TEXT,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+CREATE INDEX IF NOT EXISTS idx_book_review_book_created ON book_review (book_id, created_at, id);
@@ -0,0 +1,133 @@
+package com.example.application.cover;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CoverControllerTest {
+
+    private static final byte[] COVER = { 1, 2, 3, 4 };
+
+    @TempDir
+    Path directory;
+    @TempDir
+    Path cacheDirectory;
+
+    private CoverStore coverStore;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(directory.resolve("laskar.jpeg"), COVER);
+        coverStore = new CoverStore(directory, cacheDirectory, 2, new SimpleMeterRegistry());
+        coverStore.start();
+        mvc = MockMvcBuilders.standaloneSetup(new CoverController(coverStore)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coverStore.stop();
+    }
+
+    @Test
+    void hashed_url_is_served_as_immutable_with_a_strong_etag() throws Exception {
+        String url = coverStore.url("laskar.jpeg");
+        assertThat(url).matches("/covers/[0-9a-f]{16}/laskar\\.jpeg");
+
+        MvcResult result = mvc.perform(get(url)).andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(header().string("Content-Type", "image/jpeg")).andExpect(content().bytes(COVER)).andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo('"' + url.split("/")[2] + '"');
+
+        mvc.perform(get(url).header("If-None-Match", etag)).andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void changed_cover_gets_a_new_url_and_old_one_redirects() throws Exception {
+        String oldUrl = coverStore.url("laskar.jpeg");
+        Path file = directory.resolve("laskar.jpeg");
+        Files.write(file, new byte[] { 5, 6, 7 });
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        String newUrl = coverStore.url("laskar.jpeg");
+        assertThat(newUrl).isNotEqualTo(oldUrl);
+        mvc.perform(get(oldUrl)).andExpect(status().isFound()).andExpect(redirectedUrl(newUrl))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void missing_and_unsafe_names_are_not_found() throws Exception {
+        assertThat(coverStore.url("missing.jpeg")).isEqualTo(CoverStore.PLACEHOLDER);
+        assertThat(coverStore.url(null)).isEqualTo(CoverStore.PLACEHOLDER);
+
+        mvc.perform(get("/covers/0123456789abcdef/missing.jpeg")).andExpect(status().isNotFound());
+        mvc.perform(get("/covers/0123456789abcdef/..laskar.jpeg")).andExpect(status().isNotFound());
+        mvc.perform(get("/covers/0123456789abcdef/.hidden")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void large_cover_is_offered_as_thumbnails_for_each_density() throws Exception {
+        BufferedImage image = new BufferedImage(600, 700, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(image, "jpeg", directory.resolve("besar.jpeg").toFile());
+        CoverStore.Cover cover = coverStore.find("besar.jpeg");
+        assertThat(cover.width()).isEqualTo(600);
+
+        assertThat(coverStore.thumbnail(cover, 240)).isNotNull();
+        assertThat(coverStore.thumbnail(cover, 480)).isNotNull();
+        String base = "/covers/" + cover.hash() + "/";
+        assertThat(coverStore.url("besar.jpeg", CoverSize.CARD)).isEqualTo(base + "240/besar.jpeg");
+        assertThat(coverStore.srcset("besar.jpeg", CoverSize.CARD))
+                .isEqualTo(base + "240/besar.jpeg 1x, " + base + "480/besar.jpeg 2x");
+
+        MvcResult result = mvc.perform(get(base + "240/besar.jpeg")).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/jpeg"))
+                .andExpect(header().string("ETag", '"' + cover.hash() + "-240\"")).andReturn();
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertThat(thumbnail.getWidth()).isEqualTo(240);
+        assertThat(thumbnail.getHeight()).isEqualTo(280);
+
+        // Only the widths the sizes ask for are made
+        mvc.perform(get(base + "100/besar.jpeg")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void small_cover_is_never_scaled_up() {
+        // Not an image at all, so its width is unknown and it is always offered as it is
+        String url = coverStore.url("laskar.jpeg");
+        assertThat(coverStore.url("laskar.jpeg", CoverSize.BANNER)).isEqualTo(url);
+        assertThat(coverStore.srcset("laskar.jpeg", CoverSize.BANNER)).isEqualTo(url + " 1x");
+    }
+
+    @Test
+    void a_missing_cover_directory_fails_at_startup() {
+        Path missing = directory.resolve("missing");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new CoverStore(missing, cacheDirectory, 2, new SimpleMeterRegistry()))
+                .withMessageContaining(missing.toString());
+    }
+}
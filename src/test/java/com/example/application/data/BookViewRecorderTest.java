@@ -0,0 +1,101 @@
+package com.example.application.data;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.TestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BookViewRecorderTest {
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = TestDatabase.create("book-view-recorder", 2);
+        execute("INSERT INTO categories (name) VALUES ('Fiksi')",
+                "INSERT INTO books (category_id, title) VALUES (1, 'Laskar Pelangi')",
+                "INSERT INTO books (category_id, title) VALUES (1, 'Bumi Manusia')",
+                // Stands in for MySQL's foreign key to books, which the embedded schema does not declare
+                "ALTER TABLE book_history ADD CONSTRAINT book_history_book CHECK (book_id IN (1, 2))");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Test
+    void a_failing_view_does_not_drop_the_rest_of_its_batch() throws SQLException {
+        BookViewRecorder recorder = recorder(event -> {
+        }, 10);
+        recorder.start();
+        recorder.record(1, 1);
+        recorder.record(99, 1);
+        recorder.record(2, 1);
+        recorder.record(1, 2);
+        recorder.stop();
+
+        assertThat(count("SELECT COUNT(*) FROM book_history")).isEqualTo(3);
+        assertThat(count("SELECT view_count FROM book_stats WHERE book_id = 1")).isEqualTo(2);
+        assertThat(count("SELECT view_count FROM book_stats WHERE book_id = 2")).isEqualTo(1);
+    }
+
+    @Test
+    void the_flusher_survives_an_unexpected_error() throws SQLException {
+        AtomicBoolean failed = new AtomicBoolean();
+        BookViewRecorder recorder = recorder(event -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("listener failed");
+            }
+        }, 1);
+        recorder.start();
+        try {
+            recorder.record(1, 1);
+            recorder.record(2, 1);
+
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> recorder.pending() == 0 && count("SELECT COUNT(*) FROM book_history") == 2);
+            assertThat(failed).isTrue();
+        } finally {
+            recorder.stop();
+        }
+    }
+
+    private BookViewRecorder recorder(ApplicationEventPublisher eventPublisher, int batchSize) {
+        BookDao bookDao = new BookDao(dataSource, eventPublisher, new SimpleMeterRegistry());
+        return new BookViewRecorder(bookDao, 100, batchSize, Duration.ofMillis(50), Duration.ofMillis(100),
+                Duration.ofSeconds(5));
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.dao.CategoryDao;
+import com.example.application.data.dao.ReviewDao;
+import com.example.application.data.dao.TestDatabase;
+import com.example.application.data.model.Book;
+import com.example.application.data.model.BookView;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookCacheTest {
+
+    private HikariDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private BookDao bookDao;
+    private ReviewDao reviewDao;
+    private CategoryDao categoryDao;
+    private BookCache bookCache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = TestDatabase.create("book-cache", 2);
+        execute("INSERT INTO categories (name) VALUES ('Fiksi')", "INSERT INTO members (name) VALUES ('Ayu')",
+                "INSERT INTO books (category_id, title, author) VALUES (1, 'Laskar Pelangi', 'Andrea Hirata')");
+        meterRegistry = new SimpleMeterRegistry();
+        // The DAOs publish straight to the cache, as Spring's event multicaster would
+        ApplicationEventPublisher eventPublisher = event -> {
+            if (event instanceof BookChangedEvent bookChanged) {
+                bookCache.onBookChanged(bookChanged);
+            } else if (event instanceof CategoryChangedEvent categoryChanged) {
+                bookCache.onCategoryChanged(categoryChanged);
+            }
+        };
+        bookDao = new BookDao(dataSource, eventPublisher, meterRegistry);
+        reviewDao = new ReviewDao(dataSource, eventPublisher, meterRegistry);
+        categoryDao = new CategoryDao(dataSource, eventPublisher, meterRegistry);
+        bookCache = new BookCache(bookDao, meterRegistry, 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Test
+    void repeated_lookups_are_served_from_memory() {
+        assertThat(bookCache.get(1).getTitle()).isEqualTo("Laskar Pelangi");
+        assertThat(bookCache.get(1).getTitle()).isEqualTo("Laskar Pelangi");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(
+                meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void missing_books_are_cached_until_invalidated() throws SQLException {
+        assertThat(bookCache.get(2)).isNull();
+        execute("INSERT INTO books (category_id, title, author) VALUES (1, 'Bumi Manusia', 'Pramoedya')");
+
+        assertThat(bookCache.get(2)).isNull();
+        bookCache.invalidate(2);
+        assertThat(bookCache.get(2).getTitle()).isEqualTo("Bumi Manusia");
+    }
+
+    @Test
+    void several_books_are_loaded_in_one_query_and_returned_in_order() throws SQLException {
+        execute("INSERT INTO books (category_id, title, author) VALUES (1, 'Bumi Manusia', 'Pramoedya')",
+                "INSERT INTO books (category_id, title, author) VALUES (1, 'Max Havelaar', 'Multatuli')");
+        bookCache.get(2);
+
+        assertThat(bookCache.getAll(List.of(3, 9, 1, 2))).extracting(Book::getTitle).containsExactly("Max Havelaar",
+                "Laskar Pelangi", "Bumi Manusia");
+        assertThat(meterRegistry.get("elibrary.dao.operation").tags("operation", "findBooksByIds").timer().count())
+                .isEqualTo(1);
+        // The missing id is cached as missing, like a single lookup
+        assertThat(bookCache.getAll(List.of(9, 1))).extracting(Book::getId).containsExactly(1);
+        assertThat(meterRegistry.get("elibrary.dao.operation").tags("operation", "findBooksByIds").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void recorded_views_keep_the_cached_book() {
+        assertThat(bookCache.get(1).getViewCount()).isZero();
+
+        bookDao.recordBookView(1, 1);
+        bookDao.recordBookViews(List.of(new BookView(1, 1), new BookView(1, 1)));
+        assertThat(bookCache.get(1).getViewCount()).isZero();
+
+        bookCache.invalidate(1);
+        assertThat(bookCache.get(1).getViewCount()).isEqualTo(3);
+    }
+
+    @Test
+    void ratings_and_reviews_evict_the_book() {
+        assertThat(bookCache.get(1).getAverageRating()).isZero();
+
+        bookDao.recordBookRating(1, 1, 4, null);
+        assertThat(bookCache.get(1).getAverageRating()).isEqualTo(4);
+
+        reviewDao.addReview(1, 1, 2, "Biasa saja");
+        assertThat(bookCache.get(1).getAverageRating()).isEqualTo(3);
+        assertThat(bookCache.get(1).getRatingHistogram().count(2)).isEqualTo(1);
+    }
+
+    @Test
+    void renaming_or_deleting_a_category_evicts_its_books() throws SQLException {
+        execute("INSERT INTO categories (name) VALUES ('Sejarah')",
+                "INSERT INTO books (category_id, title, author) VALUES (2, 'Max Havelaar', 'Multatuli')");
+        assertThat(bookCache.get(1).getCategoryName()).isEqualTo("Fiksi");
+        assertThat(bookCache.get(2).getCategoryName()).isEqualTo("Sejarah");
+
+        categoryDao.updateCategory(1, "Novel");
+        assertThat(bookCache.get(1).getCategoryName()).isEqualTo("Novel");
+        // Books of other categories stay cached
+        assertThat(bookCache.get(2).getCategoryName()).isEqualTo("Sejarah");
+        assertThat(
+                meterRegistry.get("cache.gets").tag("cache", "books").tag("result", "miss").functionCounter().count())
+                .isEqualTo(3);
+
+        categoryDao.deleteCategory(2);
+        assertThat(bookCache.get(2)).isNull();
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.dao.CategoryDao;
+import com.example.application.data.dao.TestDatabase;
+import com.example.application.data.model.Category;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatRuntimeException;
+
+class CategoryRegistryTest {
+
+    private HikariDataSource dataSource;
+    private CategoryRegistry registry;
+    private CategoryDao categoryDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = TestDatabase.create("category-registry", 2);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Fiksi'), ('Sejarah'), ('Horor')");
+            st.executeUpdate("INSERT INTO books (category_id, title, author) VALUES "
+                    + "(1, 'A', 'Penulis'), (1, 'B', 'Penulis'), (2, 'C', 'Penulis')");
+        }
+        // The DAO publishes straight to the registry, as Spring's event multicaster would
+        CategoryRegistry[] target = new CategoryRegistry[1];
+        categoryDao = new CategoryDao(dataSource, event -> target[0].onCategoryChanged((CategoryChangedEvent) event),
+                new SimpleMeterRegistry());
+        registry = new CategoryRegistry(categoryDao, Duration.ofMinutes(10));
+        target[0] = registry;
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        dataSource.close();
+    }
+
+    @Test
+    void categories_are_listed_by_name_with_book_counts() {
+        assertThat(registry.getAll()).extracting(Category::getName).containsExactly("Fiksi", "Horor", "Sejarah");
+        assertThat(registry.getAll()).extracting(Category::getBookCount).containsExactly(2, 0, 1);
+        assertThat(registry.getByName("fiksi").getId()).isEqualTo(1);
+        assertThat(registry.getById(2).getName()).isEqualTo("Sejarah");
+        assertThat(registry.getByName("Roman")).isNull();
+    }
+
+    @Test
+    void writes_through_the_dao_update_the_registry_without_reloading() throws SQLException {
+        registry.getAll();
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            // Not visible until the next reload, which shows that the writes below are applied in place
+            st.executeUpdate("INSERT INTO books (category_id, title, author) VALUES (2, 'D', 'Penulis')");
+        }
+
+        assertThat(categoryDao.addCategory("Roman")).isTrue();
+        assertThat(categoryDao.updateCategory(2, "Biografi")).isTrue();
+        assertThat(categoryDao.deleteCategory(3)).isTrue();
+
+        assertThat(registry.getAll()).extracting(Category::getName).containsExactly("Biografi", "Fiksi", "Roman");
+        assertThat(registry.getByName("Sejarah")).isNull();
+        assertThat(registry.getByName("Biografi").getBookCount()).isEqualTo(1);
+        assertThat(registry.getByName("Roman").getBookCount()).isZero();
+        assertThat(registry.getById(3)).isNull();
+    }
+
+    @Test
+    void a_failed_reload_keeps_the_previous_categories() throws SQLException {
+        AtomicBoolean failing = new AtomicBoolean();
+        // Reloads on every lookup
+        CategoryRegistry reloading = new CategoryRegistry(new CategoryDao(failingWhen(failing), event -> {
+        }, new SimpleMeterRegistry()), Duration.ZERO);
+        assertThat(reloading.getAll()).hasSize(3);
+
+        failing.set(true);
+        assertThat(reloading.getAll()).extracting(Category::getName).containsExactly("Fiksi", "Horor", "Sejarah");
+        assertThat(reloading.getByName("sejarah").getBookCount()).isEqualTo(1);
+
+        failing.set(false);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Roman')");
+        }
+        assertThat(reloading.getAll()).hasSize(4);
+    }
+
+    @Test
+    void a_failed_first_load_is_not_cached() {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        CategoryRegistry fresh = new CategoryRegistry(new CategoryDao(failingWhen(failing), event -> {
+        }, new SimpleMeterRegistry()), Duration.ofMinutes(10));
+        assertThatRuntimeException().isThrownBy(fresh::getAll);
+
+        failing.set(false);
+        assertThat(fresh.getAll()).hasSize(3);
+    }
+
+    private DataSource failingWhen(AtomicBoolean failing) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (failing.get()) {
+                    throw new SQLException("Database is down");
+                }
+                return super.getConnection();
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.application.data.cache;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.TestDatabase;
+import com.example.application.data.model.Book;
+import com.example.application.data.model.HomeShelves;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatRuntimeException;
+
+class HomeShelfCacheTest {
+
+    private HikariDataSource dataSource;
+    private FailingDataSource failingDataSource;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = TestDatabase.create("home-shelf-cache", 2);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Fiksi')");
+            st.executeUpdate("INSERT INTO books (category_id, title, author, publish_date) VALUES "
+                    + "(1, 'Laskar Pelangi', 'Andrea Hirata', '2005-09-01'), (1, 'Bumi Manusia', 'Pramoedya', "
+                    + "'1980-08-25')");
+        }
+        failingDataSource = new FailingDataSource(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        dataSource.close();
+    }
+
+    @Test
+    void a_failed_refresh_keeps_the_previous_shelves() {
+        HomeShelfCache cache = cache();
+        HomeShelves loaded = cache.get();
+        assertThat(loaded.newest()).extracting(Book::getTitle).containsExactly("Laskar Pelangi", "Bumi Manusia");
+
+        failingDataSource.failing = true;
+        cache.refresh();
+
+        assertThat(cache.get()).isSameAs(loaded);
+        assertThat(meterRegistry.get("elibrary.home.cache.refresh").tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void a_failed_load_is_not_cached() {
+        HomeShelfCache cache = cache();
+        failingDataSource.failing = true;
+        assertThatRuntimeException().isThrownBy(cache::get);
+
+        failingDataSource.failing = false;
+        assertThat(cache.get().newest()).hasSize(2);
+    }
+
+    private HomeShelfCache cache() {
+        BookDao bookDao = new BookDao(failingDataSource, event -> {
+        }, meterRegistry);
+        return new HomeShelfCache(bookDao, meterRegistry, 5, Duration.ofMinutes(2), Duration.ofSeconds(30));
+    }
+
+    private static final class FailingDataSource extends DelegatingDataSource {
+        private volatile boolean failing;
+
+        FailingDataSource(HikariDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Database is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single shared {@link BookDao} from hundreds of threads against an in-memory H2 database in MySQL mode and
+ * checks that no caller ever sees another caller's rows, errors or leaked connections.
+ */
+class BookDaoConcurrencyTest {
+
+    private static final String[] CATEGORIES = { "Fiksi", "Sejarah", "Sains" };
+    private static final int BOOKS_PER_CATEGORY = 20;
+    private static final int CALLERS = 300;
+    private static final int CALLS_PER_CALLER = 10;
+
+    private static HikariDataSource dataSource;
+    private static BookDao bookDao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        dataSource = TestDatabase.create("bookdao-concurrency", 16);
+
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            for (String category : CATEGORIES) {
+                st.executeUpdate("INSERT INTO categories (name) VALUES ('" + category + "')");
+            }
+            for (int c = 1; c <= CATEGORIES.length; c++) {
+                for (int i = 1; i <= BOOKS_PER_CATEGORY; i++) {
+                    st.executeUpdate("INSERT INTO books (category_id, title, author, publisher, synopsis, image_cover, "
+                            + "publish_date) VALUES (" + c + ", 'Buku " + c + "-" + i + "', 'Penulis', 'Penerbit', "
+                            + "'Sinopsis', 'cover.jpeg', DATE '2020-01-01' + " + i + ")");
+                }
+            }
+            st.executeUpdate("INSERT INTO book_history (book_id, member_id, rating) "
+                    + "SELECT id, 1, MOD(id, 5) + 1 FROM books");
+        }
+        bookDao = new BookDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+        bookDao.rebuildBookStats();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shared_instance_serves_hundreds_of_concurrent_callers() throws Exception {
+        int totalBooks = CATEGORIES.length * BOOKS_PER_CATEGORY;
+        long historyBefore = countHistory();
+        AtomicInteger recordedViews = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int caller = 0; caller < CALLERS; caller++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int call = 0; call < CALLS_PER_CALLER; call++) {
+                    int bookId = random.nextInt(1, totalBooks + 1);
+                    switch (random.nextInt(5)) {
+                    case 0 -> {
+                        Book book = bookDao.getBookById(bookId);
+                        if (book == null || book.getId() != bookId) {
+                            failures.add(
+                                    "getBookById(" + bookId + ") returned " + (book == null ? null : book.getId()));
+                        }
+                    }
+                    case 1 -> {
+                        int categoryIndex = random.nextInt(CATEGORIES.length);
+                        String category = CATEGORIES[categoryIndex];
+                        List<Book> books = bookDao.getBooksByCategory(category, "popular");
+                        if (books.size() != BOOKS_PER_CATEGORY
+                                || books.stream().anyMatch(b -> !category.equals(b.getCategoryName()))) {
+                            failures.add("getBooksByCategory(" + category + ") returned " + books.size() + " rows");
+                        }
+                    }
+                    case 2 -> expectFive("getNewestBooks", bookDao.getNewestBooks(5), failures);
+                    case 3 -> expectFive("getTopRatedBooks", bookDao.getTopRatedBooks(5), failures);
+                    default -> {
+                        if (bookDao.recordBookView(bookId, 1)) {
+                            recordedViews.incrementAndGet();
+                        } else {
+                            failures.add("recordBookView(" + bookId + ") failed");
+                        }
+                    }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertThat(failures).isEmpty();
+        assertThat(countHistory()).isEqualTo(historyBefore + recordedViews.get());
+        assertThat(queryLong("SELECT SUM(view_count) FROM book_stats")).isEqualTo(countHistory());
+        assertThat(dataSource.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+
+    private static void expectFive(String operation, List<Book> books, ConcurrentLinkedQueue<String> failures) {
+        if (books.size() != 5 || books.stream().anyMatch(b -> b.getTitle() == null)) {
+            failures.add(operation + " returned " + books.size() + " rows");
+        }
+    }
+
+    private static long countHistory() throws SQLException {
+        return queryLong("SELECT COUNT(*) FROM book_history");
+    }
+
+    private static long queryLong(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.example.application.data.model.BookContent;
+import com.example.application.data.model.BookPage;
+import com.example.application.data.model.ReadingHistoryPage;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookDaoTest {
+
+    private static final int BOOKS = 47;
+    private static final int UNDATED = 7;
+
+    private static HikariDataSource dataSource;
+    private static BookDao bookDao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        dataSource = TestDatabase.create("bookdao", 4);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Fiksi'), ('Sejarah')");
+            // Lots of ties on every sort key, so paging has to rely on the id tie-breaker; every 7th book is undated
+            for (int i = 1; i <= BOOKS; i++) {
+                st.executeUpdate("INSERT INTO books (category_id, title, author, publish_date) VALUES (" + (i % 2 + 1)
+                        + ", 'Buku " + (i % 5) + "', 'Penulis', "
+                        + (i % UNDATED == 0 ? "NULL" : "DATE '2020-01-01' + " + (i % 4)) + ")");
+            }
+            for (int i = 1; i <= BOOKS; i++) {
+                for (int v = 0; v < i % 3; v++) {
+                    st.executeUpdate("INSERT INTO book_history (book_id, member_id, rating) VALUES (" + i + ", 1, "
+                            + (i % 2 == 0 ? "4" : "NULL") + ")");
+                }
+            }
+            st.executeUpdate("INSERT INTO book_content (book_id, content) VALUES "
+                    + "(1, REPEAT('a', 250)), (2, 'Bab lain'), (1, 'Pendek')");
+        }
+        bookDao = new BookDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+        // Gives every book its book_stats row, as MySQL's insert trigger would
+        bookDao.rebuildBookStats();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookSort.class)
+    void paging_through_all_books_visits_each_book_once_in_order(BookSort sort) {
+        List<Integer> expected = ids(bookDao.getBooksPage(null, sort, null, 1_000).books());
+        assertThat(expected).hasSize(BOOKS).doesNotHaveDuplicates();
+
+        assertThat(pageThrough(null, sort, 6)).containsExactlyElementsOf(expected);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookSort.class)
+    void paging_through_a_category_matches_the_unpaged_listing(BookSort sort) {
+        List<Integer> expected = ids(bookDao.getBooksByCategory("Fiksi", sort.key()));
+        assertThat(expected).isNotEmpty().doesNotHaveDuplicates();
+
+        assertThat(pageThrough(1, sort, 4)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void books_without_a_publish_date_come_last_in_both_date_orders() {
+        List<Integer> undated = List.of(7, 14, 21, 28, 35, 42);
+
+        List<Integer> newest = pageThrough(null, BookSort.NEWEST, 5);
+        assertThat(newest).hasSize(BOOKS);
+        assertThat(newest.subList(BOOKS - undated.size(), BOOKS)).containsExactlyElementsOf(undated.reversed());
+
+        List<Integer> oldest = pageThrough(null, BookSort.OLDEST, 5);
+        assertThat(oldest).hasSize(BOOKS);
+        assertThat(oldest.subList(BOOKS - undated.size(), BOOKS)).containsExactlyElementsOf(undated);
+    }
+
+    @Test
+    void a_book_without_a_stats_row_is_listed_and_gets_one_on_its_first_view() throws SQLException {
+        int id = BOOKS + 1;
+        execute("INSERT INTO books (id, category_id, title, publish_date) VALUES (" + id + ", 1, 'Buku Baru', "
+                + "DATE '2021-01-01')");
+        try {
+            // As on the embedded databases, which have no insert trigger, the new book has no book_stats row yet
+            assertThat(pageThrough(1, BookSort.ALPHABETICAL, 4)).contains(id);
+            assertThat(pageThrough(1, BookSort.NEWEST, 4).getFirst()).isEqualTo(id);
+            assertThat(pageThrough(null, BookSort.OLDEST, 5)).contains(id);
+            assertThat(pageThrough(1, BookSort.POPULAR, 4)).doesNotContain(id);
+
+            bookDao.recordBookView(id, 99);
+            assertThat(pageThrough(1, BookSort.POPULAR, 4)).contains(id);
+            assertThat(pageThrough(2, BookSort.POPULAR, 4)).doesNotContain(id);
+        } finally {
+            execute("DELETE FROM book_history WHERE book_id = " + id, "DELETE FROM book_stats WHERE book_id = " + id,
+                    "DELETE FROM books WHERE id = " + id);
+        }
+    }
+
+    @Test
+    void chapter_index_has_numbers_lengths_and_previews_but_no_text() {
+        List<BookContent> chapters = bookDao.getChapterIndex(1, 100);
+
+        assertThat(chapters).extracting(BookContent::getChapterNumber).containsExactly(1, 2);
+        assertThat(chapters).extracting(BookContent::getContentLength).containsExactly(250, 6);
+        assertThat(chapters).extracting(BookContent::getPreview).containsExactly("a".repeat(100), "Pendek");
+        assertThat(chapters).extracting(BookContent::getContent).containsOnlyNulls();
+
+    }
+
+    @Test
+    void chapter_text_is_read_one_slice_at_a_time() {
+        int first = bookDao.getChapterIndex(1, 0).getFirst().getId();
+        StringBuilder text = new StringBuilder();
+        for (int offset = 0; offset < 250; offset += 60) {
+            String slice = bookDao.getChapterText(1, first, offset, 60);
+            assertThat(slice).hasSize(Math.min(60, 250 - offset));
+            text.append(slice);
+        }
+
+        assertThat(text.toString()).isEqualTo("a".repeat(250));
+        assertThat(bookDao.getChapterText(1, first, 250, 60)).isEmpty();
+        assertThat(bookDao.getChapterText(2, first, 0, 60)).isNull();
+    }
+
+    @Test
+    void every_operation_is_timed_and_counted_by_operation_and_sort() throws SQLException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BookDao dao = new BookDao(dataSource, event -> {
+        }, registry);
+        dao.getBooksPage(null, BookSort.POPULAR, null, 5);
+
+        assertThat(registry.get("elibrary.dao.operation")
+                .tags("operation", "getBooksPage", "sort", "popular", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        // The extra row that tells whether there is a next page is read too
+        assertThat(registry.get("elibrary.dao.rows").tags("operation", "getBooksPage").summary().totalAmount())
+                .isEqualTo(6);
+
+        // Failures the DAO reports as an empty result are still counted
+        HikariDataSource closed = TestDatabase.create("bookdao-closed", 1);
+        closed.close();
+        assertThat(new BookDao(closed, event -> {
+        }, registry).getNewestBooks(5)).isEmpty();
+        assertThat(registry.get("elibrary.dao.errors")
+                .tags("operation", "getNewestBooks", "sort", "none", "exception", "SQLException").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("elibrary.dao.operation").tags("operation", "getNewestBooks", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void every_operation_is_a_flight_recorder_event() throws IOException {
+        Path file = Files.createTempFile("bookdao-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("elibrary.DaoCall");
+            recording.start();
+            bookDao.getBooksPage(null, BookSort.NEWEST, null, 3);
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> calls = RecordingFile.readAllEvents(file);
+            assertThat(calls).hasSize(1);
+            assertThat(calls.getFirst().getString("operation")).isEqualTo("getBooksPage");
+            assertThat(calls.getFirst().getString("sort")).isEqualTo("newest");
+            assertThat(calls.getFirst().getLong("rows")).isEqualTo(4);
+            assertThat(calls.getFirst().getBoolean("failed")).isFalse();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void recently_read_lists_each_book_once_by_its_latest_view() {
+        for (int bookId : new int[] { 3, 5, 3, 7, 9, 5 }) {
+            bookDao.recordBookView(bookId, 2);
+        }
+
+        ReadingHistoryPage first = bookDao.getRecentlyRead(2, null, 3);
+        assertThat(ids(first.books())).containsExactly(5, 9, 7);
+        assertThat(first.hasNext()).isTrue();
+
+        ReadingHistoryPage second = bookDao.getRecentlyRead(2, first.next(), 3);
+        assertThat(ids(second.books())).containsExactly(3);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(bookDao.getRecentlyRead(3, null, 3).books()).isEmpty();
+    }
+
+    private static List<Integer> pageThrough(Integer categoryId, BookSort sort, int pageSize) {
+        List<Integer> ids = new ArrayList<>();
+        BookPage page = bookDao.getBooksPage(categoryId, sort, null, pageSize);
+        ids.addAll(ids(page.books()));
+        while (page.hasNext()) {
+            page = bookDao.getBooksPage(categoryId, sort, page.next(), pageSize);
+            assertThat(page.books()).isNotEmpty().hasSizeLessThanOrEqualTo(pageSize);
+            ids.addAll(ids(page.books()));
+        }
+        return ids;
+    }
+
+    private static void execute(String... statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            for (String sql : statements) {
+                st.executeUpdate(sql);
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<Book> books) {
+        return books.stream().map(Book::getId).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.application.data.dao;
+
+import com.example.application.data.model.Book;
+import com.example.application.data.model.RatingHistogram;
+import com.example.application.data.model.Review;
+import com.example.application.data.model.ReviewPage;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewDaoTest {
+
+    private static HikariDataSource dataSource;
+    private static BookDao bookDao;
+    private static ReviewDao reviewDao;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        dataSource = TestDatabase.create("reviewdao", 2);
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Fiksi')");
+            st.executeUpdate("INSERT INTO members (name) VALUES ('Ayu'), ('Budi')");
+            st.executeUpdate("INSERT INTO books (category_id, title) VALUES (1, 'Paged'), (1, 'Rated'), (1, 'Other')");
+            // Batches of reviews saved in the same millisecond, so paging has to rely on the id tie-breaker
+            for (int i = 1; i <= 23; i++) {
+                st.executeUpdate("INSERT INTO book_review (book_id, member_id, rating, comment, created_at) VALUES "
+                        + "(1, " + (i % 2 + 1) + ", " + (i % 5 + 1) + ", 'Ulasan " + i + "', "
+                        + "TIMESTAMP '2024-01-01 10:00:00' + INTERVAL '" + (i / 4) + "' MINUTE)");
+            }
+            st.executeUpdate("INSERT INTO book_review (book_id, member_id, rating) VALUES (3, 1, 5)");
+        }
+        bookDao = new BookDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+        reviewDao = new ReviewDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void paging_visits_every_review_of_the_book_once_newest_first() {
+        List<Review> reviews = new ArrayList<>();
+        ReviewPage page = reviewDao.getReviews(1, null, 4);
+        reviews.addAll(page.reviews());
+        while (page.hasNext()) {
+            page = reviewDao.getReviews(1, page.next(), 4);
+            assertThat(page.reviews()).isNotEmpty().hasSizeLessThanOrEqualTo(4);
+            reviews.addAll(page.reviews());
+        }
+
+        assertThat(reviews).hasSize(23).extracting(Review::bookId).containsOnly(1);
+        assertThat(reviews).extracting(Review::id).doesNotHaveDuplicates();
+        assertThat(reviews).isSortedAccordingTo((a, b) -> a.createdAt().equals(b.createdAt())
+                ? Integer.compare(b.id(), a.id())
+                : b.createdAt().compareTo(a.createdAt()));
+        assertThat(reviews.getFirst().comment()).isEqualTo("Ulasan 23");
+        assertThat(reviews.getFirst().memberName()).isEqualTo("Budi");
+    }
+
+    @Test
+    void saving_a_review_updates_the_rating_aggregate() {
+        assertThat(reviewDao.addReview(2, 1, 4, "Bagus")).isTrue();
+        assertThat(reviewDao.addReview(2, 2, 1, null)).isTrue();
+
+        assertThat(bookDao.recordBookRating(2, 1, 3.5, null)).isTrue();
+
+        Book book = bookDao.getBookById(2);
+        assertThat(book.getAverageRating()).isEqualTo(8.5 / 3);
+        assertThat(book.getRatingHistogram()).isEqualTo(new RatingHistogram(1, 0, 0, 2, 0));
+        assertThat(book.getViewCount()).isEqualTo(1);
+        assertThat(reviewDao.getReviews(2, null, 10).reviews()).extracting(Review::rating).containsExactly(1, 4);
+
+        // Rebuilding book_stats from scratch arrives at the same aggregates, reviews included
+        bookDao.rebuildBookStats();
+        assertThat(bookDao.getBookById(2).getAverageRating()).isEqualTo(8.5 / 3);
+        assertThat(bookDao.getBookById(2).getRatingHistogram()).isEqualTo(book.getRatingHistogram());
+        assertThat(bookDao.getBookById(3).getRatingHistogram()).isEqualTo(new RatingHistogram(0, 0, 0, 0, 1));
+    }
+}
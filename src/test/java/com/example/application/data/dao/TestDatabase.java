@@ -0,0 +1,25 @@
+package com.example.application.data.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Creates pooled, in-memory H2 databases in MySQL mode with the embedded schema from {@code db/schema.sql}.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static HikariDataSource create(String name, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(30_000);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.application.data.dataset;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.TestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatasetGeneratorTest {
+
+    private HikariDataSource dataSource;
+    private BookDao bookDao;
+    private DatasetGenerator generator;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = TestDatabase.create("dataset", 2);
+        bookDao = new BookDao(dataSource, event -> {
+        }, new SimpleMeterRegistry());
+        generator = new DatasetGenerator(dataSource, bookDao, events::add, 5, 50, 200, 5_000, 10, 4, 500, 64, 7);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        dataSource.close();
+    }
+
+    @Test
+    void every_table_is_filled_to_scale_and_stats_are_rebuilt() throws SQLException {
+        generator.generate();
+
+        assertThat(queryLong("SELECT COUNT(*) FROM categories")).isEqualTo(5);
+        assertThat(queryLong("SELECT COUNT(*) FROM members")).isEqualTo(50);
+        assertThat(queryLong("SELECT COUNT(*) FROM books")).isEqualTo(200);
+        assertThat(queryLong("SELECT COUNT(*) FROM book_history")).isEqualTo(5_000);
+        assertThat(queryLong("SELECT COUNT(DISTINCT book_id) FROM book_content")).isEqualTo(10);
+        assertThat(queryLong("SELECT MIN(LENGTH(content)) FROM book_content")).isGreaterThanOrEqualTo(250);
+        assertThat(queryLong("SELECT SUM(view_count) FROM book_stats")).isEqualTo(5_000);
+        assertThat(queryLong("SELECT COUNT(*) FROM book_history WHERE rating < 1 OR rating > 5")).isZero();
+    }
+
+    @Test
+    void the_whole_catalog_is_reported_as_changed() throws SQLException {
+        generator.generate();
+
+        assertThat(events).last().isEqualTo(BookChangedEvent.ALL_CATALOG);
+    }
+
+    @Test
+    void a_few_books_get_most_of_the_views() throws SQLException {
+        generator.generate();
+
+        int mostViewed = bookDao.getMostViewedBooks(1).getFirst().getViewCount();
+        // Of 200 books, the top 20 take most of the views
+        long topTwenty = queryLong("SELECT SUM(view_count) FROM (SELECT view_count FROM book_stats "
+                + "ORDER BY view_count DESC LIMIT 20) t");
+        assertThat(mostViewed).isGreaterThan(5_000 / 200 * 10);
+        assertThat(topTwenty).isGreaterThan(5_000 / 2);
+        // The chapters go to the books that are read
+        assertThat(queryLong("SELECT MIN(s.view_count) FROM book_stats s "
+                + "WHERE s.book_id IN (SELECT book_id FROM book_content)")).isGreaterThan(5_000 / 200);
+    }
+
+    @Test
+    void a_database_with_books_is_left_alone() throws SQLException {
+        generator.generate();
+
+        assertThatThrownBy(generator::generate).isInstanceOf(IllegalStateException.class);
+        assertThat(queryLong("SELECT COUNT(*) FROM books")).isEqualTo(200);
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.application.data.jdbc;
+
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.BookSort;
+import com.example.application.data.dao.TestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    private HikariDataSource pool;
+    private SlowQueryLog slowQueryLog;
+    private BookDao bookDao;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = TestDatabase.create("slow-queries", 2);
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO categories (name) VALUES ('Fiksi'), ('Sejarah')");
+            st.executeUpdate("INSERT INTO books (category_id, title, author) VALUES "
+                    + "(1, 'Laskar Pelangi', 'Andrea Hirata'), (1, 'Bumi Manusia', 'Pramoedya'), "
+                    + "(2, 'Max Havelaar', 'Multatuli')");
+            // Every book has its book_stats row, as MySQL's insert trigger would add it
+            st.executeUpdate("INSERT INTO book_stats (book_id, category_id) SELECT id, category_id FROM books");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (slowQueryLog != null && slowQueryLog.isRunning()) {
+            slowQueryLog.stop();
+        }
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    private void start(Duration threshold, int capacity) {
+        slowQueryLog = new SlowQueryLog(threshold, capacity, new SimpleMeterRegistry());
+        slowQueryLog.start();
+        bookDao = new BookDao(new SlowQueryDataSource(pool, () -> slowQueryLog), event -> {
+        }, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void slow_query_is_recorded_with_parameters_rows_and_plan() throws InterruptedException {
+        start(Duration.ZERO, 10);
+        bookDao.getBooksPage(1, BookSort.ALPHABETICAL, null, 10);
+
+        SlowQuery query = slowQueryLog.getSlowQueries().getFirst();
+        assertThat(query.sql()).contains("WHERE b.category_id = ?");
+        assertThat(query.parameters()).containsExactly("1", "11");
+        assertThat(query.rows()).isEqualTo(2);
+        assertThat(query.millis()).isGreaterThanOrEqualTo(0);
+
+        // Explained once, in the background
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<String> plan = query.plan();
+        while ((plan == null || plan.isEmpty()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            plan = slowQueryLog.getSlowQueries().getFirst().plan();
+        }
+        assertThat(plan).isNotEmpty();
+        assertThat(String.join("\n", plan)).doesNotStartWith("EXPLAIN failed").containsIgnoringCase("books");
+    }
+
+    @Test
+    void only_the_newest_queries_are_kept() {
+        start(Duration.ZERO, 2);
+        bookDao.getBookById(1);
+        bookDao.getBookById(2);
+        bookDao.recordBookView(3, 1);
+
+        List<SlowQuery> queries = slowQueryLog.getSlowQueries();
+        assertThat(queries).hasSize(2);
+        // The view is one insert into book_history and one stats upsert, which updates the book's existing row and so
+        // counts two rows, as in MySQL
+        assertThat(queries).extracting(SlowQuery::rows).containsExactly(2L, 1L);
+        assertThat(queries.getFirst().sql()).startsWith("INSERT INTO book_stats");
+        assertThat(queries.get(1).sql()).startsWith("INSERT INTO book_history");
+
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+    void fast_queries_are_not_recorded() {
+        start(Duration.ofHours(1), 10);
+        assertThat(bookDao.getBookById(1)).isNotNull();
+
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.application.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    private final FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint(Duration.ofSeconds(60),
+            Duration.ofMinutes(10));
+
+    @AfterEach
+    void tearDown() {
+        endpoint.discard();
+    }
+
+    @Test
+    void recording_can_be_downloaded_once_stopped() throws IOException {
+        assertThat(endpoint.recording().getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+
+        WebEndpointResponse<FlightRecordingEndpoint.Status> started = endpoint.start(null, null);
+        assertThat(started.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(started.getBody().state()).isEqualTo("RUNNING");
+        assertThat(endpoint.start(null, null).getStatus()).isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        assertThat(endpoint.recording().getStatus()).isEqualTo(202);
+
+        ViewBuildEvent event = new ViewBuildEvent();
+        event.view = "MainView";
+        event.location = "";
+        event.commit();
+
+        assertThat(endpoint.stop().getBody().state()).isNotEqualTo("RUNNING");
+        WebEndpointResponse<Resource> download = endpoint.recording();
+        assertThat(download.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+
+        List<RecordedEvent> builds = RecordingFile.readAllEvents(download.getBody().getFile().toPath()).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("elibrary.ViewBuild")).toList();
+        assertThat(builds).extracting(recorded -> recorded.getString("view")).containsExactly("MainView");
+    }
+
+    @Test
+    void durations_over_the_limit_and_unknown_settings_are_rejected() {
+        assertThat(endpoint.start(Duration.ofHours(1), null).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.start(null, "no-such-settings").getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.recording().getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
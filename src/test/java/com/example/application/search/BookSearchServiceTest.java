@@ -0,0 +1,97 @@
+package com.example.application.search;
+
+import com.example.application.data.dao.BookChangedEvent;
+import com.example.application.data.dao.BookDao;
+import com.example.application.data.dao.CategoryChangedEvent;
+import com.example.application.data.dao.CategoryDao;
+import com.example.application.data.dao.TestDatabase;
+import com.example.application.data.model.BookView;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchServiceTest {
+
+    private HikariDataSource dataSource;
+    private BookDao bookDao;
+    private CategoryDao categoryDao;
+    private BookSearchService searchService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = TestDatabase.create("book-search", 2);
+        execute("INSERT INTO categories (name) VALUES ('Fiksi'), ('Sejarah')",
+                "INSERT INTO books (category_id, title, author) VALUES (1, 'Laskar Pelangi', 'Andrea Hirata')",
+                "INSERT INTO books (category_id, title, author) VALUES (2, 'Bumi Manusia', 'Pramoedya')");
+        // The DAOs publish straight to the search service, as Spring's event multicaster would
+        ApplicationEventPublisher eventPublisher = event -> {
+            if (event instanceof BookChangedEvent bookChanged) {
+                searchService.onBookChanged(bookChanged);
+            } else if (event instanceof CategoryChangedEvent categoryChanged) {
+                searchService.onCategoryChanged(categoryChanged);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bookDao = new BookDao(dataSource, eventPublisher, meterRegistry);
+        categoryDao = new CategoryDao(dataSource, eventPublisher, meterRegistry);
+        searchService = new BookSearchService(bookDao, meterRegistry, Duration.ofMinutes(1), Duration.ofHours(1));
+        searchService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    @Test
+    void renamed_categories_are_reindexed_with_their_books() {
+        assertThat(bookIds("fiksi")).containsExactly(1);
+
+        categoryDao.updateCategory(1, "Novel Remaja");
+
+        assertThat(bookIds("novel")).containsExactly(1);
+        assertThat(bookIds("fiksi")).isEmpty();
+        assertThat(bookIds("sejarah")).containsExactly(2);
+    }
+
+    @Test
+    void books_of_a_deleted_category_are_no_longer_found() {
+        categoryDao.deleteCategory(2);
+
+        assertThat(bookIds("manusia")).isEmpty();
+        assertThat(bookIds("pelangi")).containsExactly(1);
+    }
+
+    @Test
+    void recorded_views_leave_the_index_alone() throws SQLException {
+        execute("UPDATE books SET title = 'Sang Pemimpi' WHERE id = 1");
+
+        bookDao.recordBookViews(List.of(new BookView(1, 1)));
+
+        assertThat(bookIds("pelangi")).containsExactly(1);
+    }
+
+    private List<Integer> bookIds(String query) {
+        return searchService.search(query, 10).stream().map(SearchHit::bookId).toList();
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            for (String sql : statements) {
+                st.execute(sql);
+            }
+        }
+    }
+}
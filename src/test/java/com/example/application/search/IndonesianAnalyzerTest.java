@@ -0,0 +1,50 @@
+package com.example.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndonesianAnalyzerTest {
+
+    private final Analyzer analyzer = new IndonesianAnalyzer();
+
+    @Test
+    void stopwords_are_dropped_and_case_and_accents_folded() {
+        assertThat(analyzer.analyze("Buku yang DIA baca di Café")).containsExactly("buku", "baca", "cafe");
+        assertThat(analyzer.analyze(null)).isEmpty();
+    }
+
+    @Test
+    void inflected_forms_share_their_stem() {
+        assertThat(analyzer.analyze("membaca dibaca bacaan bacalah")).containsOnly("baca");
+        assertThat(analyzer.analyze("memukul menyapu mengambil")).containsExactly("pukul", "sapu", "ambil");
+        assertThat(analyzer.analyze("bukunya makanan berlari pelajaran kesehatan")).containsExactly("buku", "makan",
+                "lari", "ajar", "sehat");
+    }
+
+    @Test
+    void short_roots_and_numbers_are_left_alone() {
+        assertThat(analyzer.analyze("makan baca bab 12 2024an")).containsExactly("makan", "baca", "bab", "12",
+                "2024an");
+    }
+
+    @Test
+    void documents_and_queries_meet_on_the_stem() {
+        SearchIndex index = SearchIndex.of(List.of(document(1, "Petualangan para pelajar di Belitung"),
+                document(2, "Kisah dan bukunya yang hilang")));
+
+        assertThat(index.search(analyzer.analyze("belajar"), 10)).extracting(SearchHit::bookId).containsExactly(1);
+        assertThat(index.search(analyzer.analyze("buku-buku yang hilang"), 10)).extracting(SearchHit::bookId)
+                .containsExactly(2);
+        assertThat(index.search(analyzer.analyze("yang dan di"), 10)).isEmpty();
+    }
+
+    private Document document(int bookId, String text) {
+        List<String> terms = analyzer.analyze(text);
+        return new Document(bookId, terms.stream().collect(Collectors.toMap(term -> term, term -> 1, Integer::sum)),
+                terms.size());
+    }
+}
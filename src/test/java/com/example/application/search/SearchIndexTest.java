@@ -0,0 +1,110 @@
+package com.example.application.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    @Test
+    void rare_terms_and_short_documents_rank_first() {
+        SearchIndex index = SearchIndex.of(List.of(document(1, "laskar pelangi belitung"), document(2, "pelangi"),
+                document(3, "bumi manusia"), document(4, "anak semua bangsa bumi")));
+
+        assertThat(bookIds(index.search(analyzer.analyze("Pelangi"), 10))).containsExactly(2, 1);
+        assertThat(bookIds(index.search(analyzer.analyze("bumi manusia"), 10))).containsExactly(3, 4);
+        assertThat(index.search(analyzer.analyze("hujan"), 10)).isEmpty();
+        assertThat(index.search(analyzer.analyze("bumi"), 1)).hasSize(1);
+    }
+
+    @Test
+    void updates_replace_and_remove_books() {
+        SearchIndex index = SearchIndex.of(List.of(document(1, "laskar pelangi"), document(2, "bumi manusia")));
+
+        index = index.update(List.of(document(1, "sang pemimpi"), document(3, "pelangi di mars")), List.of(2));
+
+        assertThat(bookIds(index.search(analyzer.analyze("pelangi"), 10))).containsExactly(3);
+        assertThat(bookIds(index.search(analyzer.analyze("pemimpi"), 10))).containsExactly(1);
+        assertThat(index.search(analyzer.analyze("bumi"), 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void merged_segments_answer_like_a_fresh_build() {
+        Random random = new Random(42);
+        String[] words = { "bab", "hujan", "senja", "laut", "kota", "malam", "rindu", "pagi", "jalan", "rumah" };
+        Map<Integer, Document> latest = new HashMap<>();
+        SearchIndex index = SearchIndex.EMPTY;
+        // Every MAX_SEGMENTS + 1 updates the segments are merged, the last time in the final round
+        for (int round = 0; round <= SearchIndex.MAX_SEGMENTS * 3; round++) {
+            List<Document> batch = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                StringBuilder text = new StringBuilder();
+                int length = 1 + random.nextInt(30);
+                for (int w = 0; w < length; w++) {
+                    text.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                // Large ids exercise multi-byte varint gaps
+                Document document = document(random.nextInt(200) * 1_000, text.toString());
+                batch.removeIf(other -> other.bookId() == document.bookId());
+                batch.add(document);
+            }
+            batch.forEach(document -> latest.put(document.bookId(), document));
+            index = index.update(batch, List.of());
+            assertThat(index.segmentCount()).isLessThanOrEqualTo(SearchIndex.MAX_SEGMENTS);
+        }
+
+        SearchIndex fresh = SearchIndex.of(latest.values());
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(fresh.size());
+        for (String word : words) {
+            List<String> query = analyzer.analyze(word + " senja");
+            assertThat(bookIds(index.search(query, 1_000)))
+                    .containsExactlyElementsOf(bookIds(fresh.search(query, 1_000)));
+        }
+    }
+
+    @Test
+    void pruned_top_hits_match_the_exhaustive_ranking() {
+        Random random = new Random(3);
+        String[] words = { "yang", "dan", "di", "hujan", "senja", "laut", "kota", "malam", "rindu", "pagi" };
+        List<Document> documents = new ArrayList<>();
+        for (int bookId = 1; bookId <= 2_000; bookId++) {
+            StringBuilder text = new StringBuilder();
+            int length = 1 + random.nextInt(40);
+            for (int w = 0; w < length; w++) {
+                // Skewed, so that the first words are in almost every document and the last ones are rare
+                text.append(words[(int) (words.length * Math.pow(random.nextDouble(), 3))]).append(' ');
+            }
+            documents.add(document(bookId, text.toString()));
+        }
+        SearchIndex index = SearchIndex.of(documents);
+
+        for (String query : List.of("yang dan rindu", "di pagi", "dan yang di", "rindu pagi malam kota")) {
+            List<Integer> all = bookIds(index.search(analyzer.analyze(query), documents.size()));
+            for (int limit : new int[] { 1, 5, 20, 100 }) {
+                assertThat(bookIds(index.search(analyzer.analyze(query), limit))).as(query + " top " + limit)
+                        .containsExactlyElementsOf(all.subList(0, limit));
+            }
+        }
+    }
+
+    private Document document(int bookId, String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> terms = analyzer.analyze(text);
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        return new Document(bookId, frequencies, terms.size());
+    }
+
+    private static List<Integer> bookIds(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::bookId).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.application.search;
+
+import com.example.application.data.model.BookTitle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    private final SuggestionIndex index = SuggestionIndex
+            .build(List.of(new BookTitle(1, "Laskar Pelangi", "Andrea Hirata", 50),
+                    new BookTitle(2, "Sang Pemimpi", "Andrea Hirata", 30),
+                    new BookTitle(3, "Bumi Manusia", "Pramoedya Ananta Toer", 70),
+                    new BookTitle(4, "Pulang", "Leila S. Chudori", 5),
+                    new BookTitle(5, "Pelangi di Mars", "andrea hirata", 1)));
+
+    @Test
+    void any_word_of_a_title_or_author_matches_its_start() {
+        assertThat(labels(index.suggest("pel", 10))).containsExactly("Laskar Pelangi", "Pelangi di Mars");
+        assertThat(labels(index.suggest("HIR", 10))).containsExactly("Andrea Hirata");
+        assertThat(labels(index.suggest("laskar pe", 10))).containsExactly("Laskar Pelangi");
+        assertThat(index.suggest("angi", 10)).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void most_popular_first_with_authors_summed_over_their_books() {
+        // Andrea Hirata: 50 + 30 + 1 views, however the name is capitalized
+        assertThat(index.suggest("a", 10)).containsExactly(new Suggestion("Andrea Hirata", Suggestion.Type.AUTHOR, 0),
+                new Suggestion("Pramoedya Ananta Toer", Suggestion.Type.AUTHOR, 0));
+        assertThat(labels(index.suggest("p", 3))).containsExactly("Pramoedya Ananta Toer", "Laskar Pelangi",
+                "Sang Pemimpi");
+    }
+
+    @Test
+    void top_suggestions_match_sorting_every_match() {
+        Random random = new Random(7);
+        String[] words = { "hujan", "hutan", "senja", "sendiri", "laut", "lautan", "kota", "malam", "rindu", "rumah" };
+        List<BookTitle> books = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            books.add(new BookTitle(id, title, null, random.nextInt(1_000)));
+        }
+        SuggestionIndex index = SuggestionIndex.build(books);
+
+        for (String prefix : List.of("h", "hu", "sen", "laut", "rindu r", "x")) {
+            List<Integer> expected = books.stream()
+                    .filter(book -> book.title().startsWith(prefix) || book.title().contains(" " + prefix))
+                    .sorted(Comparator.comparingInt(BookTitle::viewCount).reversed()).map(BookTitle::viewCount)
+                    .limit(10).toList();
+            List<Integer> actual = index.suggest(prefix, 10).stream()
+                    .map(suggestion -> books.get(suggestion.bookId() - 1).viewCount()).toList();
+            assertThat(actual).as(prefix).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static List<String> labels(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::label).toList();
+    }
+}
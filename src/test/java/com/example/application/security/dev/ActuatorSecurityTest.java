@@ -0,0 +1,77 @@
+package com.example.application.security.dev;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The whole application with the dev security configuration, on an embedded database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuator-security;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa", "spring.datasource.password=", "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/schema.sql", "vaadin.launch-browser=false" })
+@AutoConfigureMockMvc
+class ActuatorSecurityTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void health_is_open_to_everyone() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void flight_recordings_need_credentials() throws Exception {
+        mvc.perform(get("/actuator/flightrecording")).andExpect(status().isUnauthorized())
+                .andExpect(header().exists("WWW-Authenticate"));
+        mvc.perform(post("/actuator/flightrecording")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/flightrecording").with(httpBasic(SampleUsers.ADMIN_USERNAME, "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void flight_recordings_are_forbidden_to_regular_users() throws Exception {
+        mvc.perform(get("/actuator/flightrecording").with(user())).andExpect(status().isForbidden());
+        mvc.perform(post("/actuator/flightrecording").with(user())).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void administrators_record_without_a_csrf_token() throws Exception {
+        mvc.perform(get("/actuator/flightrecording").with(admin())).andExpect(status().isNotFound());
+        mvc.perform(
+                post("/actuator/flightrecording").with(admin()).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/actuator/flightrecording").with(admin())).andExpect(status().isOk());
+        mvc.perform(get("/actuator/flightrecording").with(admin())).andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+
+    @Test
+    void slow_queries_are_only_shown_to_administrators() throws Exception {
+        mvc.perform(get("/actuator/slowqueries")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/actuator/slowqueries").with(user())).andExpect(status().isForbidden());
+        mvc.perform(delete("/actuator/slowqueries").with(user())).andExpect(status().isForbidden());
+
+        mvc.perform(get("/actuator/slowqueries").with(admin())).andExpect(status().isOk());
+        mvc.perform(delete("/actuator/slowqueries").with(admin())).andExpect(status().isNoContent());
+    }
+
+    private static RequestPostProcessor admin() {
+        return httpBasic(SampleUsers.ADMIN_USERNAME, SampleUsers.SAMPLE_PASSWORD);
+    }
+
+    private static RequestPostProcessor user() {
+        return httpBasic(SampleUsers.USER_USERNAME, SampleUsers.SAMPLE_PASSWORD);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.application.user.base.ui.view;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Image;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.dom.Element;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViewBuildListenerTest {
+
+    private static Div card() {
+        Div card = new Div(new Image("/covers/a.jpg", "A"), new Span("Judul"));
+        // Elements without a component of their own are counted as elements only
+        card.getElement().appendChild(new Element("p"));
+        return card;
+    }
+
+    @Test
+    void components_and_elements_under_the_view_are_counted() {
+        Div view = new Div(card(), card());
+
+        assertThat(ViewBuildListener.countComponents(view)).isEqualTo(7);
+        // Each card is a div, img, span, the span's text node and a p
+        assertThat(ViewBuildListener.countElements(view.getElement())).isEqualTo(11);
+    }
+
+    @Test
+    void objects_that_cannot_be_serialized_are_left_out_of_the_size() {
+        record Holder(List<String> titles, Object service) implements Serializable {
+        }
+        List<String> titles = new ArrayList<>(List.of("Laskar Pelangi", "Bumi Manusia"));
+
+        long withoutService = ViewBuildListener.serializedSize(new Holder(titles, null));
+        assertThat(withoutService).isPositive();
+        assertThat(ViewBuildListener.serializedSize(new Holder(titles, new Object()))).isEqualTo(withoutService);
+        titles.add("Max Havelaar");
+        assertThat(ViewBuildListener.serializedSize(new Holder(titles, null))).isGreaterThan(withoutService);
+    }
+
+    @Test
+    void views_over_budget_are_counted_by_view() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ViewBuildListener listener = new ViewBuildListener(registry, Duration.ofSeconds(1), 5, DataSize.ofMegabytes(1),
+                0);
+
+        listener.record(new UI(), new Div(card()), "", 1_000);
+        listener.record(new UI(), new Div(card(), card()), "", 1_000);
+        listener.record(new UI(), new Div(), "", Duration.ofSeconds(2).toNanos());
+
+        assertThat(registry.get("elibrary.view.build").tags("view", "Div").timer().count()).isEqualTo(3);
+        assertThat(registry.get("elibrary.view.components").tags("view", "Div").summary().max()).isEqualTo(7);
+        assertThat(registry.get("elibrary.view.over-budget").tags("view", "Div").counter().count()).isEqualTo(2);
+        assertThat(registry.find("elibrary.view.session").summary()).isNull();
+    }
+}